@@ -3,9 +3,9 @@ package com.novastream;
 import com.novastream.config.MediaConfig;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
-import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
-@EnableAsync
+@EnableScheduling
 @SpringBootApplication
 @EnableConfigurationProperties(MediaConfig.class)
 public class NovastreamBackendApplication {}
@@ -0,0 +1,66 @@
+package com.novastream.config;
+
+import com.novastream.service.MediaStreamWriter;
+import com.novastream.util.FileRegion;
+import com.novastream.util.MultipartFileRegion;
+import com.novastream.util.StreamRegion;
+import java.io.IOException;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+public class FileRegionHttpMessageConverter
+  extends AbstractHttpMessageConverter<StreamRegion> {
+
+  private final MediaStreamWriter mediaStreamWriter;
+
+  public FileRegionHttpMessageConverter(MediaStreamWriter mediaStreamWriter) {
+    super(MediaType.ALL);
+    this.mediaStreamWriter = mediaStreamWriter;
+  }
+
+  @Override
+  protected boolean supports(Class<?> clazz) {
+    return StreamRegion.class.isAssignableFrom(clazz);
+  }
+
+  @Override
+  protected boolean canRead(MediaType mediaType) {
+    return false;
+  }
+
+  @Override
+  protected StreamRegion readInternal(
+    Class<? extends StreamRegion> clazz,
+    HttpInputMessage inputMessage
+  ) {
+    throw new HttpMessageNotReadableException(
+      "File regions cannot be read from a request",
+      inputMessage
+    );
+  }
+
+  @Override
+  protected Long getDefaultContentLength(
+    StreamRegion region,
+    MediaType contentType
+  ) {
+    return region.contentLength();
+  }
+
+  @Override
+  protected void writeInternal(
+    StreamRegion region,
+    HttpOutputMessage outputMessage
+  ) throws IOException {
+    if (region instanceof MultipartFileRegion regions) {
+      mediaStreamWriter.write(regions, outputMessage.getBody());
+    } else if (region instanceof FileRegion fileRegion) {
+      mediaStreamWriter.write(fileRegion, outputMessage.getBody());
+    } else {
+      region.release();
+    }
+  }
+}
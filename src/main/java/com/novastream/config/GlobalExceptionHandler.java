@@ -1,5 +1,7 @@
 package com.novastream.config;
 
+import com.novastream.exception.RangeNotSatisfiableException;
+import com.novastream.exception.StreamRejectedException;
 import com.novastream.util.ResponseHandler;
 import java.util.NoSuchElementException;
 import org.slf4j.Logger;
@@ -81,6 +83,41 @@ public class GlobalExceptionHandler {
     return responseHandler.create(HttpStatus.BAD_REQUEST, ex.getMessage());
   }
 
+  @ExceptionHandler(StreamRejectedException.class)
+  public ResponseEntity<Object> handleStreamRejected(
+    StreamRejectedException ex,
+    WebRequest request
+  ) {
+    logger.debug(
+      "Stream rejected: {}",
+      ex.getMessage(),
+      request.getDescription(false)
+    );
+    return ResponseEntity
+      .status(HttpStatus.SERVICE_UNAVAILABLE)
+      .header(
+        HttpHeaders.RETRY_AFTER,
+        String.valueOf(ex.getRetryAfterSeconds())
+      )
+      .build();
+  }
+
+  @ExceptionHandler(RangeNotSatisfiableException.class)
+  public ResponseEntity<Object> handleRangeNotSatisfiable(
+    RangeNotSatisfiableException ex,
+    WebRequest request
+  ) {
+    logger.debug(
+      "Range not satisfiable: {}",
+      ex.getMessage(),
+      request.getDescription(false)
+    );
+    return ResponseEntity
+      .status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+      .header(HttpHeaders.CONTENT_RANGE, "bytes */" + ex.getFileLength())
+      .build();
+  }
+
   @ExceptionHandler(Exception.class)
   public ResponseEntity<Object> handleGeneric(
     Exception ex,
@@ -1,5 +1,6 @@
 package com.novastream.config;
 
+import java.io.File;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
@@ -10,7 +11,41 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 public class MediaConfig {
 
   private String basePath;
+  private String dataPath =
+    System.getProperty("user.home") + File.separator + ".novastream";
   private long maxSize = 1024 * 1024;
   private int chunkSize = 1024 * 1024;
+  private int minChunkSize = 256 * 1024;
+  private int maxChunkSize = 16 * 1024 * 1024;
+  private double chunkTargetSeconds = 2;
+  private int segmentSize = 1024 * 1024;
+  private long segmentCacheMaxBytes = 256L * 1024 * 1024;
   private int maxConcurrentStreams = 10;
+  private long streamCacheMaxAge = 86_400;
+  private long listCacheMaxAge = 0;
+  private int maxListPageSize = 1_000;
+  private int maxBatchIds = 50;
+  private int probeCacheMaxEntries = 200_000;
+  private long subtitleCacheMaxAge = 3_600;
+  private int maxStreamsPerClient = 3;
+  private long admissionTimeoutMs = 2_000;
+  private long admissionRetryAfterSeconds = 5;
+  private int maxOpenChannels = 64;
+  private long channelIdleTimeoutMs = 60_000;
+  private long channelRevalidateIntervalMs = 2_000;
+  private long sessionIdleTimeoutMs = 30_000;
+  private int prefetchChunks = 4;
+  private int prefetchThreads = 4;
+  private int subtitleExtractionThreads = 2;
+  private long bandwidthGlobalLimit = 0;
+  private long bandwidthPerClientLimit = 0;
+  private long bandwidthPerSessionLimit = 0;
+  private long assumedBitrate = 1_000_000;
+  private double lowBufferSeconds = 10;
+  private long indexDebounceMs = 2_000;
+  private long indexReconcileIntervalMs = 300_000;
+  private int maxConcurrentProcesses = Math.max(
+    2,
+    Runtime.getRuntime().availableProcessors() / 2
+  );
 }
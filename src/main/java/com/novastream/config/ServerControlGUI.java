@@ -1,6 +1,7 @@
 package com.novastream.config;
 
 import com.novastream.NovastreamBackendApplication;
+import com.novastream.service.LibraryIndexer;
 import com.novastream.service.MediaService;
 import java.io.OutputStream;
 import java.io.PrintStream;
@@ -500,6 +501,14 @@ public class ServerControlGUI extends Application {
           SpringApplication.run(NovastreamBackendApplication.class);
         MediaConfig config = springContext.getBean(MediaConfig.class);
         config.setBasePath(selectedPath);
+        LibraryIndexer libraryIndexer = springContext.getBean(
+          LibraryIndexer.class
+        );
+        libraryIndexer.start(selectedPath);
+        appendLog("🔎 Indexing media library...", LogType.SYSTEM);
+        libraryIndexer.scanLibrary(message ->
+          appendLog(message, LogType.SYSTEM)
+        );
         serverRunning = true;
         startTime = LocalDateTime.now();
         currentIpAddress = getIpAddress();
@@ -579,6 +588,14 @@ public class ServerControlGUI extends Application {
           SpringApplication.run(NovastreamBackendApplication.class);
         MediaConfig config = springContext.getBean(MediaConfig.class);
         config.setBasePath(selectedPath);
+        LibraryIndexer libraryIndexer = springContext.getBean(
+          LibraryIndexer.class
+        );
+        libraryIndexer.start(selectedPath);
+        appendLog("🔎 Indexing media library...", LogType.SYSTEM);
+        libraryIndexer.scanLibrary(message ->
+          appendLog(message, LogType.SYSTEM)
+        );
         serverRunning = true;
         startTime = LocalDateTime.now();
         currentIpAddress = getIpAddress();
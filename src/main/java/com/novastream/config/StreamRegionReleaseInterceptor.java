@@ -0,0 +1,25 @@
+package com.novastream.config;
+
+import com.novastream.util.StreamRegion;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+public class StreamRegionReleaseInterceptor implements HandlerInterceptor {
+
+  @Override
+  public void afterCompletion(
+    HttpServletRequest request,
+    HttpServletResponse response,
+    Object handler,
+    Exception ex
+  ) {
+    if (
+      request.getAttribute(
+        StreamRegion.class.getName()
+      ) instanceof StreamRegion region
+    ) {
+      region.release();
+    }
+  }
+}
@@ -0,0 +1,28 @@
+package com.novastream.config;
+
+import com.novastream.service.MediaStreamWriter;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+  @Autowired
+  private MediaStreamWriter mediaStreamWriter;
+
+  @Override
+  public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+    converters.add(0, new FileRegionHttpMessageConverter(mediaStreamWriter));
+  }
+
+  @Override
+  public void addInterceptors(InterceptorRegistry registry) {
+    registry
+      .addInterceptor(new StreamRegionReleaseInterceptor())
+      .addPathPatterns("/media/stream");
+  }
+}
@@ -1,19 +1,31 @@
 package com.novastream.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.novastream.config.MediaConfig;
 import com.novastream.dto.MediaDto;
+import com.novastream.dto.MediaPageDto;
 import com.novastream.dto.MediaStreamDto;
 import com.novastream.service.MediaService;
 import com.novastream.service.SubtitleService;
+import com.novastream.util.HttpValidators;
 import com.novastream.util.ResponseHandler;
+import com.novastream.util.StreamRegion;
+import jakarta.servlet.http.HttpServletRequest;
 import java.util.List;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/media")
@@ -28,6 +40,12 @@ public class MediaController {
   @Autowired
   private ResponseHandler responseHandler;
 
+  @Autowired
+  private MediaConfig mediaConfig;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
   @GetMapping("/ping")
   public ResponseEntity<Object> getConfig() {
     return responseHandler.create(HttpStatus.OK, "pong");
@@ -35,21 +53,90 @@ public class MediaController {
 
   @GetMapping("/list")
   public ResponseEntity<Object> listAll(
-    @RequestParam(required = false) String id
+    @RequestParam(required = false) String id,
+    @RequestParam(required = false) String cursor,
+    @RequestParam(required = false) Integer limit
+  ) throws JsonProcessingException {
+    Object data = cursor == null && limit == null
+      ? mediaService.listMedia(id)
+      : mediaService.listMediaPage(id, cursor, limit);
+    HttpHeaders headers = new HttpHeaders();
+    headers.setETag(
+      HttpValidators.weakETag(objectMapper.writeValueAsBytes(data))
+    );
+    headers.setCacheControl(
+      HttpValidators.cacheControl(mediaConfig.getListCacheMaxAge())
+    );
+    return responseHandler.create(HttpStatus.OK, headers, data);
+  }
+
+  @GetMapping(value = "/list", produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public ResponseEntity<StreamingResponseBody> streamList(
+    @RequestParam(required = false) String id,
+    @RequestParam(required = false) String cursor,
+    @RequestParam(required = false) Integer limit
+  ) {
+    MediaPageDto page = mediaService.listMediaPage(id, cursor, limit);
+    HttpHeaders headers = new HttpHeaders();
+    if (page.getNextCursor() != null) {
+      headers.add("X-Next-Cursor", page.getNextCursor());
+    }
+    headers.setCacheControl(
+      HttpValidators.cacheControl(mediaConfig.getListCacheMaxAge())
+    );
+
+    StreamingResponseBody body = outputStream -> {
+      for (MediaDto mediaDto : page.getItems()) {
+        outputStream.write(objectMapper.writeValueAsBytes(mediaDto));
+        outputStream.write('\n');
+      }
+    };
+    return ResponseEntity
+      .ok()
+      .headers(headers)
+      .contentType(MediaType.APPLICATION_NDJSON)
+      .body(body);
+  }
+
+  @PostMapping("/list/batch")
+  public ResponseEntity<Object> listBatch(
+    @RequestBody List<String> ids,
+    @RequestParam(required = false) Integer limit
+  ) {
+    return responseHandler.create(
+      HttpStatus.OK,
+      mediaService.listMediaBatch(ids, limit)
+    );
+  }
+
+  @GetMapping("/search")
+  public ResponseEntity<Object> search(
+    @RequestParam String q,
+    @RequestParam(required = false) Integer limit
   ) {
-    List<MediaDto> mediaDto = mediaService.listMedia(id);
-    return responseHandler.create(HttpStatus.OK, mediaDto);
+    return responseHandler.create(
+      HttpStatus.OK,
+      mediaService.searchMedia(q, limit)
+    );
   }
 
   @GetMapping("/stream")
   public ResponseEntity<Object> stream(
     @RequestParam String videoId,
-    @RequestHeader(value = "Range", required = false) String range
+    @RequestHeader HttpHeaders requestHeaders,
+    HttpServletRequest request
   ) {
-    MediaStreamDto MediaStreamDto = mediaService.streamVideo(videoId, range);
+    MediaStreamDto MediaStreamDto = mediaService.streamVideo(
+      videoId,
+      requestHeaders,
+      request.getRemoteAddr()
+    );
+    if (MediaStreamDto.body instanceof StreamRegion region) {
+      request.setAttribute(StreamRegion.class.getName(), region);
+    }
     return responseHandler.stream(
       MediaStreamDto.status,
-      MediaStreamDto.resource,
+      MediaStreamDto.body,
       MediaStreamDto.mediaType,
       MediaStreamDto.headers
     );
@@ -66,7 +153,7 @@ public class MediaController {
     );
     return responseHandler.stream(
       MediaStreamDto.status,
-      MediaStreamDto.resource,
+      MediaStreamDto.body,
       MediaStreamDto.mediaType,
       MediaStreamDto.headers
     );
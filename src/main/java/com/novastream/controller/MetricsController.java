@@ -0,0 +1,97 @@
+package com.novastream.controller;
+
+import com.novastream.service.BandwidthShaper;
+import com.novastream.service.ContentTypeService;
+import com.novastream.service.LibraryIndexer;
+import com.novastream.service.PlaybackSessionRegistry;
+import com.novastream.service.ReadAheadPrefetcher;
+import com.novastream.service.StreamAdmissionController;
+import com.novastream.service.SubtitleExtractionScheduler;
+import com.novastream.util.FileChannelCache;
+import com.novastream.util.MediaCatalog;
+import com.novastream.util.ProbeCache;
+import com.novastream.util.ProcessLimiter;
+import com.novastream.util.ResponseHandler;
+import com.novastream.util.SearchIndex;
+import com.novastream.util.SegmentCache;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/metrics")
+public class MetricsController {
+
+  @Autowired
+  private SegmentCache segmentCache;
+
+  @Autowired
+  private FileChannelCache fileChannelCache;
+
+  @Autowired
+  private PlaybackSessionRegistry playbackSessionRegistry;
+
+  @Autowired
+  private ReadAheadPrefetcher readAheadPrefetcher;
+
+  @Autowired
+  private StreamAdmissionController streamAdmissionController;
+
+  @Autowired
+  private BandwidthShaper bandwidthShaper;
+
+  @Autowired
+  private MediaCatalog mediaCatalog;
+
+  @Autowired
+  private LibraryIndexer libraryIndexer;
+
+  @Autowired
+  private ProcessLimiter processLimiter;
+
+  @Autowired
+  private SearchIndex searchIndex;
+
+  @Autowired
+  private ContentTypeService contentTypeService;
+
+  @Autowired
+  private SubtitleExtractionScheduler subtitleExtractionScheduler;
+
+  @Autowired
+  private ProbeCache probeCache;
+
+  @Autowired
+  private ResponseHandler responseHandler;
+
+  @GetMapping
+  public ResponseEntity<Object> getMetrics() {
+    Map<String, Object> metrics = new LinkedHashMap<>();
+    metrics.put("openChannels", fileChannelCache.size());
+    metrics.put("segmentCache", segmentCache.getStats());
+    metrics.put("playbackSessions", playbackSessionRegistry.size());
+    metrics.put("admission", streamAdmissionController.getStats());
+    metrics.put("bandwidth", bandwidthShaper.getStats());
+    metrics.put(
+      "prefetchedSegments",
+      readAheadPrefetcher.getPrefetchedSegments()
+    );
+    metrics.put(
+      "rejectedPrefetches",
+      readAheadPrefetcher.getRejectedPrefetches()
+    );
+    metrics.put("catalogDirectories", mediaCatalog.size());
+    metrics.put("libraryIndex", libraryIndexer.getStats());
+    metrics.put("searchIndex", searchIndex.getStats());
+    metrics.put("contentTypes", contentTypeService.getStats());
+    metrics.put("subtitleExtraction", subtitleExtractionScheduler.getStats());
+    metrics.put("probeCache", probeCache.getStats());
+    metrics.put("externalProcesses", processLimiter.getStats());
+    return responseHandler.create(HttpStatus.OK, metrics);
+  }
+}
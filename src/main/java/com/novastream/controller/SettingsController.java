@@ -0,0 +1,66 @@
+package com.novastream.controller;
+
+import com.novastream.service.BandwidthShaper;
+import com.novastream.util.ResponseHandler;
+import jakarta.servlet.http.HttpServletRequest;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/settings")
+public class SettingsController {
+
+  @Autowired
+  private BandwidthShaper bandwidthShaper;
+
+  @Autowired
+  private ResponseHandler responseHandler;
+
+  @GetMapping("/bandwidth")
+  public ResponseEntity<Object> getBandwidth() {
+    return responseHandler.create(HttpStatus.OK, bandwidthShaper.getStats());
+  }
+
+  @PutMapping("/bandwidth")
+  public ResponseEntity<Object> updateBandwidth(
+    @RequestParam(required = false) Long global,
+    @RequestParam(required = false) Long perClient,
+    @RequestParam(required = false) Long perSession,
+    HttpServletRequest request
+  ) {
+    if (!isLoopback(request.getRemoteAddr())) {
+      return responseHandler.create(
+        HttpStatus.FORBIDDEN,
+        "Bandwidth limits can only be changed from the server machine"
+      );
+    }
+    if (
+      (global != null && global < 0) ||
+      (perClient != null && perClient < 0) ||
+      (perSession != null && perSession < 0)
+    ) {
+      throw new IllegalArgumentException("Bandwidth limits cannot be negative");
+    }
+
+    bandwidthShaper.setLimits(global, perClient, perSession);
+    return responseHandler.create(HttpStatus.OK, bandwidthShaper.getStats());
+  }
+
+  private static boolean isLoopback(String address) {
+    try {
+      return (
+        address != null && InetAddress.getByName(address).isLoopbackAddress()
+      );
+    } catch (UnknownHostException e) {
+      return false;
+    }
+  }
+}
@@ -0,0 +1,17 @@
+package com.novastream.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class MediaBatchResultDto {
+
+  private String id;
+  private List<MediaDto> items;
+  private String nextCursor;
+  private String error;
+}
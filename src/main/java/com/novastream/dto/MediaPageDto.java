@@ -0,0 +1,15 @@
+package com.novastream.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class MediaPageDto {
+
+  private List<MediaDto> items;
+  private String nextCursor;
+}
@@ -3,7 +3,6 @@ package com.novastream.dto;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -13,7 +12,7 @@ import org.springframework.http.MediaType;
 @NoArgsConstructor
 public class MediaStreamDto {
 
-  public Resource resource;
+  public Object body;
   public HttpHeaders headers;
   public MediaType mediaType;
   public HttpStatus status;
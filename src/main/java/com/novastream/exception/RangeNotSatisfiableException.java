@@ -0,0 +1,15 @@
+package com.novastream.exception;
+
+public class RangeNotSatisfiableException extends RuntimeException {
+
+  private final long fileLength;
+
+  public RangeNotSatisfiableException(long fileLength) {
+    super("Requested range not satisfiable", null, false, false);
+    this.fileLength = fileLength;
+  }
+
+  public long getFileLength() {
+    return fileLength;
+  }
+}
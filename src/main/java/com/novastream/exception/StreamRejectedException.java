@@ -0,0 +1,15 @@
+package com.novastream.exception;
+
+public class StreamRejectedException extends RuntimeException {
+
+  private final long retryAfterSeconds;
+
+  public StreamRejectedException(String message, long retryAfterSeconds) {
+    super(message, null, false, false);
+    this.retryAfterSeconds = retryAfterSeconds;
+  }
+
+  public long getRetryAfterSeconds() {
+    return retryAfterSeconds;
+  }
+}
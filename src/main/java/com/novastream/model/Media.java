@@ -17,4 +17,5 @@ public class Media {
   private Long size;
   private Long filesCount;
   private List<Subtitle> subtitleLanguages;
+  private Long lastModified;
 }
@@ -0,0 +1,118 @@
+package com.novastream.service;
+
+import com.novastream.config.MediaConfig;
+import com.novastream.util.TokenBucket;
+import jakarta.annotation.PostConstruct;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+@Service
+public class BandwidthShaper {
+
+  private static final int SLICE_SIZE = 64 * 1024;
+
+  @Autowired
+  private MediaConfig mediaConfig;
+
+  private TokenBucket globalBucket;
+
+  private final Map<String, TokenBucket> clientBuckets = new ConcurrentHashMap<>();
+
+  private final LongAdder shapedBytes = new LongAdder();
+  private final LongAdder throttledNanos = new LongAdder();
+  private final LongAdder prioritizedSlices = new LongAdder();
+
+  @PostConstruct
+  public void init() {
+    globalBucket = new TokenBucket(mediaConfig.getBandwidthGlobalLimit());
+  }
+
+  public boolean isEnabled() {
+    return (
+      mediaConfig.getBandwidthGlobalLimit() > 0 ||
+      mediaConfig.getBandwidthPerClientLimit() > 0 ||
+      mediaConfig.getBandwidthPerSessionLimit() > 0
+    );
+  }
+
+  public int getSliceSize() {
+    return isEnabled() ? SLICE_SIZE : Integer.MAX_VALUE;
+  }
+
+  public void throttle(PlaybackSession session, long bytes)
+    throws InterruptedException {
+    if (!isEnabled()) {
+      return;
+    }
+
+    long waitNanos = globalBucket.reserve(bytes);
+
+    if (session != null) {
+      TokenBucket clientBucket = clientBuckets.computeIfAbsent(
+        session.getClientAddress(),
+        key -> new TokenBucket(mediaConfig.getBandwidthPerClientLimit())
+      );
+      long sessionWaitNanos = Math.max(
+        clientBucket.reserve(bytes),
+        session
+          .getBandwidthBucket(mediaConfig.getBandwidthPerSessionLimit())
+          .reserve(bytes)
+      );
+      waitNanos = Math.max(waitNanos, sessionWaitNanos);
+
+      double lowBufferSeconds = mediaConfig.getLowBufferSeconds();
+      if (session.getBufferedSeconds() < lowBufferSeconds) {
+        prioritizedSlices.increment();
+        waitNanos = Math.max(0, waitNanos - (long) (lowBufferSeconds * 1e9));
+      }
+    }
+
+    shapedBytes.add(bytes);
+    if (waitNanos > 0) {
+      throttledNanos.add(waitNanos);
+      TimeUnit.NANOSECONDS.sleep(waitNanos);
+    }
+  }
+
+  public void setLimits(Long global, Long perClient, Long perSession) {
+    if (global != null) {
+      mediaConfig.setBandwidthGlobalLimit(global);
+      globalBucket.setRate(global);
+    }
+    if (perClient != null) {
+      mediaConfig.setBandwidthPerClientLimit(perClient);
+      clientBuckets.values().forEach(bucket -> bucket.setRate(perClient));
+    }
+    if (perSession != null) {
+      mediaConfig.setBandwidthPerSessionLimit(perSession);
+    }
+  }
+
+  public Map<String, Object> getStats() {
+    Map<String, Object> stats = new LinkedHashMap<>();
+    stats.put("globalLimit", mediaConfig.getBandwidthGlobalLimit());
+    stats.put("perClientLimit", mediaConfig.getBandwidthPerClientLimit());
+    stats.put("perSessionLimit", mediaConfig.getBandwidthPerSessionLimit());
+    stats.put("shapedBytes", shapedBytes.sum());
+    stats.put(
+      "throttledMillis",
+      TimeUnit.NANOSECONDS.toMillis(throttledNanos.sum())
+    );
+    stats.put("prioritizedSlices", prioritizedSlices.sum());
+    return stats;
+  }
+
+  @Scheduled(fixedDelay = 60000)
+  public void expireIdleClients() {
+    long cutoff = System.nanoTime() - TimeUnit.MINUTES.toNanos(1);
+    clientBuckets
+      .entrySet()
+      .removeIf(entry -> entry.getValue().getLastRefill() < cutoff);
+  }
+}
@@ -0,0 +1,155 @@
+package com.novastream.service;
+
+import com.novastream.config.MediaConfig;
+import com.novastream.util.BinaryExtractor;
+import com.novastream.util.FileChannelCache;
+import com.novastream.util.ProbeCache;
+import com.novastream.util.ProcessLimiter;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+@Service
+public class BitrateEstimator {
+
+  private static final Logger logger = LoggerFactory.getLogger(
+    BitrateEstimator.class
+  );
+
+  private static final int MAX_TRACKED_FILES = 4096;
+
+  private static final String DURATION = "duration";
+
+  private final String ffprobePath = BinaryExtractor.getBinaryPath("ffprobe");
+
+  @Autowired
+  private MediaConfig mediaConfig;
+
+  @Autowired
+  private ProcessLimiter processLimiter;
+
+  @Autowired
+  private ProbeCache probeCache;
+
+  private final Map<FileKey, Long> bitrates = new LinkedHashMap<>(
+    16,
+    0.75f,
+    true
+  ) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<FileKey, Long> eldest) {
+      return size() > MAX_TRACKED_FILES;
+    }
+  };
+
+  private ThreadPoolExecutor executor;
+
+  public long estimate(FileChannelCache.Handle handle) {
+    FileKey key = new FileKey(handle.getPath(), handle.getLastModified());
+    Long bitrate;
+    synchronized (bitrates) {
+      bitrate = bitrates.get(key);
+      if (bitrate == null) {
+        bitrates.put(key, 0L);
+      }
+    }
+
+    if (bitrate == null) {
+      long size = handle.getSize();
+      getExecutor()
+        .execute(() -> {
+          long probed = probe(key.path(), size, key.lastModified());
+          synchronized (bitrates) {
+            bitrates.put(key, probed);
+          }
+        });
+      return mediaConfig.getAssumedBitrate();
+    }
+    return bitrate > 0 ? bitrate : mediaConfig.getAssumedBitrate();
+  }
+
+  @PreDestroy
+  public synchronized void shutdown() {
+    if (executor != null) {
+      executor.shutdownNow();
+    }
+  }
+
+  private synchronized ThreadPoolExecutor getExecutor() {
+    if (executor == null) {
+      int threads = Math.max(1, mediaConfig.getMaxConcurrentProcesses());
+      executor =
+        new ThreadPoolExecutor(
+          threads,
+          threads,
+          30,
+          TimeUnit.SECONDS,
+          new LinkedBlockingQueue<>(),
+          runnable -> {
+            Thread thread = new Thread(runnable, "bitrate-probe");
+            thread.setDaemon(true);
+            return thread;
+          }
+        );
+      executor.allowCoreThreadTimeOut(true);
+    }
+    return executor;
+  }
+
+  private long probe(Path path, long size, long lastModified) {
+    try {
+      String cached = probeCache.get(DURATION, path, size, lastModified);
+      String output = cached != null ? cached : probeDuration(path);
+
+      double duration = Double.parseDouble(output);
+      if (cached == null) {
+        probeCache.put(DURATION, path, size, lastModified, output);
+      }
+      return duration > 0 ? (long) (size / duration) : 0;
+    } catch (IOException | InterruptedException | NumberFormatException e) {
+      logger.debug(
+        "Failed to probe duration of " + path + ": " + e.getMessage()
+      );
+      return 0;
+    }
+  }
+
+  private String probeDuration(Path path)
+    throws IOException, InterruptedException {
+    processLimiter.acquire();
+    try {
+      Process probe = new ProcessBuilder(
+        ffprobePath,
+        "-v",
+        "error",
+        "-show_entries",
+        "format=duration",
+        "-of",
+        "csv=p=0",
+        path.toString()
+      )
+        .redirectErrorStream(true)
+        .start();
+
+      InputStream stream = probe.getInputStream();
+      String output = new String(stream.readAllBytes()).trim();
+      stream.close();
+      probe.waitFor();
+      return output;
+    } finally {
+      processLimiter.release();
+    }
+  }
+
+  private record FileKey(Path path, long lastModified) {}
+}
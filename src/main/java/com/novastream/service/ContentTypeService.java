@@ -0,0 +1,254 @@
+package com.novastream.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+@Service
+public class ContentTypeService {
+
+  private static final Logger logger = LoggerFactory.getLogger(
+    ContentTypeService.class
+  );
+
+  public static final String DEFAULT_CONTENT_TYPE = "application/octet-stream";
+
+  private static final int MAX_TRACKED_FILES = 16384;
+  private static final int SNIFF_LENGTH = 192;
+
+  private static final Map<String, String> EXTENSIONS = Map.ofEntries(
+    Map.entry("mp4", "video/mp4"),
+    Map.entry("m4v", "video/mp4"),
+    Map.entry("mkv", "video/x-matroska"),
+    Map.entry("webm", "video/webm"),
+    Map.entry("avi", "video/x-msvideo"),
+    Map.entry("mov", "video/quicktime"),
+    Map.entry("qt", "video/quicktime"),
+    Map.entry("wmv", "video/x-ms-wmv"),
+    Map.entry("asf", "video/x-ms-asf"),
+    Map.entry("flv", "video/x-flv"),
+    Map.entry("mpg", "video/mpeg"),
+    Map.entry("mpeg", "video/mpeg"),
+    Map.entry("ts", "video/mp2t"),
+    Map.entry("m2ts", "video/mp2t"),
+    Map.entry("mts", "video/mp2t"),
+    Map.entry("3gp", "video/3gpp"),
+    Map.entry("3g2", "video/3gpp2"),
+    Map.entry("ogv", "video/ogg"),
+    Map.entry("mp3", "audio/mpeg"),
+    Map.entry("m4a", "audio/mp4"),
+    Map.entry("m4b", "audio/mp4"),
+    Map.entry("aac", "audio/aac"),
+    Map.entry("ac3", "audio/ac3"),
+    Map.entry("flac", "audio/flac"),
+    Map.entry("wav", "audio/wav"),
+    Map.entry("aiff", "audio/aiff"),
+    Map.entry("ogg", "audio/ogg"),
+    Map.entry("oga", "audio/ogg"),
+    Map.entry("opus", "audio/opus"),
+    Map.entry("mka", "audio/x-matroska"),
+    Map.entry("wma", "audio/x-ms-wma"),
+    Map.entry("srt", "application/x-subrip"),
+    Map.entry("vtt", "text/vtt"),
+    Map.entry("ass", "text/x-ssa"),
+    Map.entry("ssa", "text/x-ssa"),
+    Map.entry("txt", "text/plain"),
+    Map.entry("nfo", "text/plain"),
+    Map.entry("jpg", "image/jpeg"),
+    Map.entry("jpeg", "image/jpeg"),
+    Map.entry("png", "image/png"),
+    Map.entry("gif", "image/gif"),
+    Map.entry("bmp", "image/bmp"),
+    Map.entry("webp", "image/webp"),
+    Map.entry("heic", "image/heic"),
+    Map.entry("heif", "image/heif"),
+    Map.entry("avif", "image/avif"),
+    Map.entry("tif", "image/tiff"),
+    Map.entry("tiff", "image/tiff")
+  );
+
+  private final Map<Path, Detection> detections = new LinkedHashMap<>(
+    16,
+    0.75f,
+    true
+  ) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<Path, Detection> eldest) {
+      return size() > MAX_TRACKED_FILES;
+    }
+  };
+
+  private final LongAdder extensionHits = new LongAdder();
+  private final LongAdder cacheHits = new LongAdder();
+  private final LongAdder sniffs = new LongAdder();
+
+  public boolean isVideo(File file) {
+    if (file == null || !file.isFile()) {
+      return false;
+    }
+    Path path = file.toPath();
+    String contentType = getContentTypeByExtension(path);
+    if (contentType == null) {
+      contentType = detect(path, file.lastModified());
+    }
+    return contentType.startsWith("video/");
+  }
+
+  public String getContentType(Path path, long lastModified) {
+    String contentType = getContentTypeByExtension(path);
+    return contentType != null ? contentType : detect(path, lastModified);
+  }
+
+  public Map<String, Object> getStats() {
+    return Map.of(
+      "extensionHits",
+      extensionHits.sum(),
+      "cacheHits",
+      cacheHits.sum(),
+      "sniffs",
+      sniffs.sum()
+    );
+  }
+
+  private String getContentTypeByExtension(Path path) {
+    String contentType = EXTENSIONS.get(getExtension(path));
+    if (contentType != null) {
+      extensionHits.increment();
+    }
+    return contentType;
+  }
+
+  private String detect(Path path, long lastModified) {
+    Detection detection;
+    synchronized (detections) {
+      detection = detections.get(path);
+    }
+    if (detection != null && detection.lastModified() == lastModified) {
+      cacheHits.increment();
+      return detection.contentType();
+    }
+
+    String contentType = sniff(path);
+    synchronized (detections) {
+      detections.put(path, new Detection(lastModified, contentType));
+    }
+    return contentType;
+  }
+
+  private String sniff(Path path) {
+    sniffs.increment();
+    String probed = probeContentType(path);
+    if (
+      probed != null &&
+      !probed.startsWith("video/") &&
+      !probed.equals(DEFAULT_CONTENT_TYPE)
+    ) {
+      return probed;
+    }
+
+    byte[] header;
+    try (InputStream in = Files.newInputStream(path)) {
+      header = in.readNBytes(SNIFF_LENGTH);
+    } catch (IOException e) {
+      logger.debug("Failed to sniff " + path + ": " + e.getMessage());
+      return DEFAULT_CONTENT_TYPE;
+    }
+
+    String detected = detectMagic(header);
+    if (detected != null) {
+      return detected;
+    }
+    return probed != null ? probed : DEFAULT_CONTENT_TYPE;
+  }
+
+  private static String probeContentType(Path path) {
+    try {
+      return Files.probeContentType(path);
+    } catch (IOException e) {
+      return null;
+    }
+  }
+
+  private static String detectMagic(byte[] header) {
+    if (startsWith(header, 0, 0x1A, 0x45, 0xDF, 0xA3)) {
+      return containsAscii(header, "webm") ? "video/webm" : "video/x-matroska";
+    }
+    if (matchesAscii(header, 4, "ftyp")) {
+      return matchesAscii(header, 8, "qt  ") ? "video/quicktime" : "video/mp4";
+    }
+    if (matchesAscii(header, 0, "RIFF") && matchesAscii(header, 8, "AVI ")) {
+      return "video/x-msvideo";
+    }
+    if (
+      startsWith(header, 0, 0x30, 0x26, 0xB2, 0x75, 0x8E, 0x66, 0xCF, 0x11)
+    ) {
+      return "video/x-ms-asf";
+    }
+    if (matchesAscii(header, 0, "FLV")) {
+      return "video/x-flv";
+    }
+    if (
+      startsWith(header, 0, 0x00, 0x00, 0x01, 0xBA) ||
+      startsWith(header, 0, 0x00, 0x00, 0x01, 0xB3)
+    ) {
+      return "video/mpeg";
+    }
+    if (header.length > 188 && header[0] == 0x47 && header[188] == 0x47) {
+      return "video/mp2t";
+    }
+    if (matchesAscii(header, 0, "OggS")) {
+      return "video/ogg";
+    }
+    return null;
+  }
+
+  private static boolean startsWith(byte[] data, int offset, int... bytes) {
+    if (data.length < offset + bytes.length) {
+      return false;
+    }
+    for (int i = 0; i < bytes.length; i++) {
+      if ((data[offset + i] & 0xFF) != bytes[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean matchesAscii(byte[] data, int offset, String text) {
+    byte[] expected = text.getBytes(StandardCharsets.US_ASCII);
+    return (
+      data.length >= offset + expected.length &&
+      Arrays.equals(
+        data,
+        offset,
+        offset + expected.length,
+        expected,
+        0,
+        expected.length
+      )
+    );
+  }
+
+  private static boolean containsAscii(byte[] data, String text) {
+    return new String(data, StandardCharsets.ISO_8859_1).contains(text);
+  }
+
+  private static String getExtension(Path path) {
+    String name = path.getFileName().toString();
+    int dot = name.lastIndexOf('.');
+    return dot < 0 ? "" : name.substring(dot + 1).toLowerCase(Locale.ROOT);
+  }
+
+  private record Detection(long lastModified, String contentType) {}
+}
@@ -0,0 +1,388 @@
+package com.novastream.service;
+
+import com.novastream.config.MediaConfig;
+import com.novastream.model.Media;
+import com.novastream.util.MediaCatalog;
+import jakarta.annotation.PreDestroy;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+@Service
+public class LibraryIndexer {
+
+  private static final Logger logger = LoggerFactory.getLogger(
+    LibraryIndexer.class
+  );
+
+  private static final long PROGRESS_INTERVAL_MS = 2_000;
+
+  @Autowired
+  private MediaConfig mediaConfig;
+
+  @Autowired
+  private LibraryService libraryService;
+
+  @Autowired
+  private MediaCatalog mediaCatalog;
+
+  @Autowired
+  private SubtitleExtractionScheduler subtitleExtractionScheduler;
+
+  private final Map<WatchKey, Path> watchedDirectories = new ConcurrentHashMap<>();
+
+  private final Set<Path> registeredDirectories = ConcurrentHashMap.newKeySet();
+
+  private final Map<Path, Long> pendingDirectories = new ConcurrentHashMap<>();
+
+  private Path root;
+  private WatchService watchService;
+  private Thread watcherThread;
+  private ScheduledExecutorService executor;
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void onApplicationReady() {
+    if (StringUtils.hasText(mediaConfig.getBasePath())) {
+      start(mediaConfig.getBasePath());
+      scanLibrary(message -> logger.debug(message));
+    }
+  }
+
+  public synchronized void start(String basePath) {
+    Path newRoot = Paths.get(basePath).toAbsolutePath().normalize();
+    if (newRoot.equals(root)) {
+      return;
+    }
+    stop();
+    root = newRoot;
+
+    executor =
+      Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "library-indexer");
+        thread.setDaemon(true);
+        return thread;
+      });
+
+    try {
+      watchService = FileSystems.getDefault().newWatchService();
+      WatchService service = watchService;
+      watcherThread = new Thread(() -> watch(service), "library-watcher");
+      watcherThread.setDaemon(true);
+      watcherThread.start();
+    } catch (IOException e) {
+      watchService = null;
+      logger.debug(
+        "File watching unavailable, relying on reconciliation: " +
+        e.getMessage()
+      );
+    }
+
+    long debounceMs = Math.max(100, mediaConfig.getIndexDebounceMs());
+    executor.scheduleWithFixedDelay(
+      this::flushPending,
+      debounceMs,
+      Math.max(50, debounceMs / 2),
+      TimeUnit.MILLISECONDS
+    );
+    long reconcileIntervalMs = Math.max(
+      1_000,
+      mediaConfig.getIndexReconcileIntervalMs()
+    );
+    executor.scheduleWithFixedDelay(
+      this::reconcile,
+      reconcileIntervalMs,
+      reconcileIntervalMs,
+      TimeUnit.MILLISECONDS
+    );
+  }
+
+  @PreDestroy
+  public synchronized void stop() {
+    if (executor != null) {
+      executor.shutdownNow();
+      executor = null;
+    }
+    if (watchService != null) {
+      try {
+        watchService.close();
+      } catch (IOException e) {
+        logger.debug("Failed to close watch service: " + e.getMessage());
+      }
+      watchService = null;
+    }
+    watcherThread = null;
+    watchedDirectories.clear();
+    registeredDirectories.clear();
+    pendingDirectories.clear();
+    root = null;
+  }
+
+  public Map<String, Object> getStats() {
+    return Map.of(
+      "watchedDirectories",
+      watchedDirectories.size(),
+      "pendingDirectories",
+      pendingDirectories.size()
+    );
+  }
+
+  private void watch(WatchService service) {
+    try {
+      while (true) {
+        WatchKey key = service.take();
+        Path directory = watchedDirectories.get(key);
+        if (directory == null) {
+          key.cancel();
+          continue;
+        }
+
+        for (WatchEvent<?> event : key.pollEvents()) {
+          if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+            ScheduledExecutorService current = executor;
+            if (current != null) {
+              current.execute(this::reconcile);
+            }
+            continue;
+          }
+
+          markPending(directory);
+        }
+
+        if (!key.reset()) {
+          watchedDirectories.remove(key);
+          registeredDirectories.remove(directory);
+          Path parent = directory.getParent();
+          if (parent != null) {
+            markPending(parent);
+          }
+        }
+      }
+    } catch (InterruptedException | ClosedWatchServiceException e) {
+      logger.debug("Library watcher stopped");
+    }
+  }
+
+  private void markPending(Path directory) {
+    pendingDirectories.put(directory, System.currentTimeMillis());
+  }
+
+  private void flushPending() {
+    long quietSince =
+      System.currentTimeMillis() - mediaConfig.getIndexDebounceMs();
+    for (Map.Entry<Path, Long> entry : pendingDirectories.entrySet()) {
+      if (
+        entry.getValue() <= quietSince &&
+        pendingDirectories.remove(entry.getKey(), entry.getValue())
+      ) {
+        try {
+          indexDirectory(entry.getKey().toFile());
+        } catch (RuntimeException e) {
+          logger.debug(
+            "Failed to index " + entry.getKey() + ": " + e.getMessage()
+          );
+        }
+      }
+    }
+  }
+
+  private void indexDirectory(File directory) {
+    String key = directory.getAbsolutePath();
+    MediaCatalog.Directory previous = mediaCatalog.get(key);
+    if (!directory.isDirectory()) {
+      libraryService.removeTree(key);
+      return;
+    }
+
+    List<Media> entries = libraryService.refreshDirectory(directory);
+    Set<String> current = new HashSet<>();
+    for (Media media : entries) {
+      current.add(media.getPath());
+      if (media.getIsDirectory()) {
+        File child = new File(media.getPath());
+        if (register(child.toPath())) {
+          indexDirectory(child);
+        }
+      }
+    }
+
+    if (previous != null) {
+      for (Media media : previous.entries()) {
+        if (!current.contains(media.getPath())) {
+          subtitleExtractionScheduler.cancel(media.getPath());
+          if (media.getIsDirectory()) {
+            libraryService.removeTree(media.getPath());
+          }
+        }
+      }
+    }
+  }
+
+  public void scanLibrary(Consumer<String> progress) {
+    Path current = root;
+    if (current == null) {
+      return;
+    }
+
+    long startedAt = System.currentTimeMillis();
+    register(current);
+    ExecutorService scanner = Executors.newVirtualThreadPerTaskExecutor();
+    LibraryScan scan = new LibraryScan(scanner, progress, startedAt);
+    try {
+      scan.submit(current.toFile());
+      scan.done.await();
+      progress.accept(
+        "Indexed " +
+        scan.directories.get() +
+        " folders and " +
+        scan.videos.get() +
+        " videos in " +
+        (System.currentTimeMillis() - startedAt) +
+        " ms"
+      );
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      scanner.shutdownNow();
+    }
+  }
+
+  private void reconcile() {
+    pruneMissingDirectories();
+    scanLibrary(message -> logger.debug(message));
+  }
+
+  private void pruneMissingDirectories() {
+    for (String path : mediaCatalog.paths()) {
+      if (!new File(path).isDirectory()) {
+        libraryService.removeTree(path);
+        logger.debug("Pruned missing directory from index: " + path);
+      }
+    }
+  }
+
+  private class LibraryScan {
+
+    private final ExecutorService executor;
+    private final Consumer<String> progress;
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicLong directories = new AtomicLong();
+    private final AtomicLong videos = new AtomicLong();
+    private final AtomicLong lastReport;
+    private final CountDownLatch done = new CountDownLatch(1);
+
+    private LibraryScan(
+      ExecutorService executor,
+      Consumer<String> progress,
+      long startedAt
+    ) {
+      this.executor = executor;
+      this.progress = progress;
+      this.lastReport = new AtomicLong(startedAt);
+    }
+
+    private void submit(File directory) {
+      pending.incrementAndGet();
+      try {
+        executor.execute(() -> {
+          try {
+            scan(directory);
+          } finally {
+            finish();
+          }
+        });
+      } catch (RejectedExecutionException e) {
+        finish();
+      }
+    }
+
+    private void scan(File directory) {
+      try {
+        for (Media media : libraryService.listDirectory(directory)) {
+          if (media.getIsDirectory()) {
+            File child = new File(media.getPath());
+            register(child.toPath());
+            submit(child);
+          } else {
+            videos.incrementAndGet();
+          }
+        }
+      } catch (RuntimeException e) {
+        logger.debug("Failed to scan " + directory + ": " + e.getMessage());
+      }
+      directories.incrementAndGet();
+      report();
+    }
+
+    private void finish() {
+      if (pending.decrementAndGet() == 0) {
+        done.countDown();
+      }
+    }
+
+    private void report() {
+      long now = System.currentTimeMillis();
+      long last = lastReport.get();
+      if (
+        now - last >= PROGRESS_INTERVAL_MS &&
+        lastReport.compareAndSet(last, now)
+      ) {
+        progress.accept(
+          "Indexing library: " +
+          directories.get() +
+          " folders, " +
+          videos.get() +
+          " videos"
+        );
+      }
+    }
+  }
+
+  private boolean register(Path directory) {
+    WatchService service = watchService;
+    if (service == null || !registeredDirectories.add(directory)) {
+      return false;
+    }
+
+    try {
+      WatchKey key = directory.register(
+        service,
+        StandardWatchEventKinds.ENTRY_CREATE,
+        StandardWatchEventKinds.ENTRY_DELETE,
+        StandardWatchEventKinds.ENTRY_MODIFY
+      );
+      return watchedDirectories.put(key, directory) == null;
+    } catch (IOException | ClosedWatchServiceException e) {
+      registeredDirectories.remove(directory);
+      logger.debug("Failed to watch " + directory + ": " + e.getMessage());
+      return false;
+    }
+  }
+}
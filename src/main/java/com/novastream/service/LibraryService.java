@@ -0,0 +1,202 @@
+package com.novastream.service;
+
+import com.novastream.model.Media;
+import com.novastream.model.Subtitle;
+import com.novastream.util.MediaCatalog;
+import com.novastream.util.MediaIdCodec;
+import com.novastream.util.SearchIndex;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+@Service
+public class LibraryService {
+
+  private static final Comparator<Media> MEDIA_ORDER = Comparator
+    .comparing((Media media) -> !media.getIsDirectory())
+    .thenComparing(Media::getName, String.CASE_INSENSITIVE_ORDER)
+    .thenComparing(Media::getName);
+
+  @Autowired
+  private SubtitleService subtitleService;
+
+  @Autowired
+  private SubtitleExtractionScheduler subtitleExtractionScheduler;
+
+  @Autowired
+  private MediaCatalog mediaCatalog;
+
+  @Autowired
+  private SearchIndex searchIndex;
+
+  @Autowired
+  private MediaIdCodec mediaIdCodec;
+
+  @Autowired
+  private ContentTypeService contentTypeService;
+
+  public List<Media> listDirectory(File directory) {
+    String key = directory.getAbsolutePath();
+    long lastModified = directory.lastModified();
+
+    MediaCatalog.Directory cached = mediaCatalog.get(key);
+    if (cached != null && cached.lastModified() == lastModified) {
+      searchIndex.indexDirectory(key, cached.entries());
+      return cached.entries();
+    }
+
+    return scanDirectory(directory, lastModified, cached);
+  }
+
+  public void removeTree(String path) {
+    mediaCatalog.removeTree(path);
+    searchIndex.removeTree(path);
+  }
+
+  public List<Media> search(String query, int limit) {
+    return searchIndex.search(query, limit);
+  }
+
+  public int positionAfter(List<Media> entries, String cursor) {
+    if (!StringUtils.hasText(cursor)) {
+      return 0;
+    }
+
+    String key;
+    try {
+      key = new String(
+        Base64.getUrlDecoder().decode(cursor),
+        StandardCharsets.UTF_8
+      );
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("Invalid cursor");
+    }
+    if (key.length() < 2 || key.charAt(1) != ':') {
+      throw new IllegalArgumentException("Invalid cursor");
+    }
+
+    Media probe = new Media();
+    probe.setIsDirectory(key.charAt(0) == 'd');
+    probe.setName(key.substring(2));
+    int index = Collections.binarySearch(entries, probe, MEDIA_ORDER);
+    return index >= 0 ? index + 1 : -index - 1;
+  }
+
+  public String cursorFor(Media media) {
+    String key = (media.getIsDirectory() ? "d:" : "f:") + media.getName();
+    return Base64
+      .getUrlEncoder()
+      .withoutPadding()
+      .encodeToString(key.getBytes(StandardCharsets.UTF_8));
+  }
+
+  public List<Media> refreshDirectory(File directory) {
+    return scanDirectory(
+      directory,
+      directory.lastModified(),
+      mediaCatalog.get(directory.getAbsolutePath())
+    );
+  }
+
+  private List<Media> scanDirectory(
+    File directory,
+    long lastModified,
+    MediaCatalog.Directory previous
+  ) {
+    Map<String, Media> previousEntries = new HashMap<>();
+    if (previous != null) {
+      for (Media media : previous.entries()) {
+        previousEntries.put(media.getPath(), media);
+      }
+    }
+
+    List<Media> entries = new ArrayList<>();
+    File[] files = directory.listFiles();
+    if (files != null) {
+      for (File file : files) {
+        if (file.getName().equalsIgnoreCase("subs") || file.isHidden()) {
+          continue;
+        }
+
+        boolean isDirectory = file.isDirectory();
+        long fileLastModified = file.lastModified();
+        Media existing = previousEntries.get(file.getAbsolutePath());
+        if (
+          existing != null &&
+          existing.getIsDirectory() == isDirectory &&
+          existing.getLastModified() == fileLastModified &&
+          (isDirectory || existing.getSize() == file.length())
+        ) {
+          entries.add(existing);
+          continue;
+        }
+
+        if (!isDirectory && !contentTypeService.isVideo(file)) {
+          continue;
+        }
+        entries.add(createMedia(file, isDirectory, fileLastModified));
+      }
+    }
+
+    entries.sort(MEDIA_ORDER);
+    List<Media> snapshot = List.copyOf(entries);
+    mediaCatalog.put(
+      directory.getAbsolutePath(),
+      new MediaCatalog.Directory(lastModified, snapshot)
+    );
+    searchIndex.indexDirectory(directory.getAbsolutePath(), snapshot);
+    return snapshot;
+  }
+
+  private Media createMedia(
+    File file,
+    boolean isDirectory,
+    long lastModified
+  ) {
+    List<Subtitle> subtitleLanguages = null;
+    Long filesCount = null;
+    if (isDirectory) {
+      String[] children = file.list();
+      filesCount = (long) (children != null ? children.length : 0);
+    } else {
+      subtitleLanguages =
+        List.copyOf(subtitleService.getSubtitleLanguages(file));
+      subtitleExtractionScheduler.schedule(
+        file,
+        SubtitleExtractionScheduler.Priority.BACKGROUND
+      );
+    }
+
+    return new Media(
+      generateId(file.getAbsolutePath()),
+      file.getName(),
+      file.getAbsolutePath(),
+      isDirectory,
+      isDirectory ? null : file.length(),
+      filesCount,
+      subtitleLanguages,
+      lastModified
+    );
+  }
+
+  private String generateId(String path) {
+    if (!StringUtils.hasText(path)) {
+      throw new IllegalArgumentException("Path cannot be null or empty");
+    }
+
+    String id = mediaIdCodec.idFor(path);
+    if (id == null) {
+      throw new IllegalArgumentException("Path is outside the media folder");
+    }
+    return id;
+  }
+}
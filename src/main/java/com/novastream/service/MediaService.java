@@ -1,31 +1,41 @@
 package com.novastream.service;
 
 import com.novastream.config.MediaConfig;
+import com.novastream.dto.MediaBatchResultDto;
 import com.novastream.dto.MediaDto;
+import com.novastream.dto.MediaPageDto;
 import com.novastream.dto.MediaStreamDto;
+import com.novastream.exception.RangeNotSatisfiableException;
+import com.novastream.exception.StreamRejectedException;
 import com.novastream.model.Media;
-import com.novastream.model.Subtitle;
+import com.novastream.util.ByteRange;
+import com.novastream.util.FileChannelCache;
+import com.novastream.util.FileRegion;
 import com.novastream.util.GenericMapper;
-import com.novastream.util.PathCache;
+import com.novastream.util.HttpValidators;
+import com.novastream.util.MediaIdCodec;
+import com.novastream.util.MultipartFileRegion;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
-import java.math.BigInteger;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
-import java.nio.file.Path;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Paths;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import javax.swing.JFileChooser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.ByteArrayResource;
-import org.springframework.core.io.FileSystemResource;
-import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -35,19 +45,47 @@ import org.springframework.util.StringUtils;
 @Service
 public class MediaService {
 
+  private static final Logger logger = LoggerFactory.getLogger(
+    MediaService.class
+  );
+
+  private static final int DEFAULT_SEARCH_LIMIT = 50;
+
   @Autowired
   private MediaConfig mediaConfig;
 
   @Autowired
-  private SubtitleService subtitleService;
+  private LibraryService libraryService;
 
   @Autowired
   private GenericMapper genericMapper;
 
   @Autowired
-  private PathCache pathCache;
+  private MediaIdCodec mediaIdCodec;
+
+  @Autowired
+  private FileChannelCache fileChannelCache;
+
+  @Autowired
+  private ContentTypeService contentTypeService;
+
+  @Autowired
+  private PlaybackSessionRegistry playbackSessionRegistry;
 
-  private final AtomicInteger activeStreams = new AtomicInteger(0);
+  @Autowired
+  private ReadAheadPrefetcher readAheadPrefetcher;
+
+  @Autowired
+  private StreamAdmissionController streamAdmissionController;
+
+  @Autowired
+  private BitrateEstimator bitrateEstimator;
+
+  @Autowired
+  private SubtitleService subtitleService;
+
+  @Autowired
+  private SubtitleExtractionScheduler subtitleExtractionScheduler;
 
   public static String chooseFolder() {
     try {
@@ -68,35 +106,123 @@ public class MediaService {
     }
   }
 
-  private String generateId(String path) {
-    try {
-      if (!StringUtils.hasText(path)) {
-        throw new IllegalArgumentException("Path cannot be null or empty");
-      }
+  public List<MediaDto> listMedia(String id) {
+    List<MediaDto> children = new ArrayList<>();
+    for (Media media : libraryService.listDirectory(resolveDirectory(id))) {
+      children.add(genericMapper.toDto(media, MediaDto.class));
+    }
+    return children;
+  }
 
-      MessageDigest digest = MessageDigest.getInstance("SHA-256");
-      byte[] hash = digest.digest(path.getBytes(StandardCharsets.UTF_8));
-      return new BigInteger(1, hash).toString(16);
-    } catch (NoSuchAlgorithmException e) {
-      throw new RuntimeException("Unable to generate file ID: ", e);
+  public MediaPageDto listMediaPage(String id, String cursor, Integer limit) {
+    if (
+      limit != null &&
+      (limit <= 0 || limit > mediaConfig.getMaxListPageSize())
+    ) {
+      throw new IllegalArgumentException(
+        "Limit must be between 1 and " + mediaConfig.getMaxListPageSize()
+      );
     }
+
+    List<Media> entries = libraryService.listDirectory(resolveDirectory(id));
+    int from = libraryService.positionAfter(entries, cursor);
+    int to = limit == null
+      ? entries.size()
+      : (int) Math.min(entries.size(), (long) from + limit);
+    List<Media> page = entries.subList(Math.min(from, to), to);
+
+    String nextCursor = to < entries.size() && !page.isEmpty()
+      ? libraryService.cursorFor(page.get(page.size() - 1))
+      : null;
+    return new MediaPageDto(toDtoView(page), nextCursor);
   }
 
-  private Boolean isVideoFile(File file) {
-    if (file == null || !file.exists() || !file.isFile()) {
-      return false;
+  public List<MediaBatchResultDto> listMediaBatch(
+    List<String> ids,
+    Integer limit
+  ) {
+    if (ids == null || ids.isEmpty()) {
+      throw new IllegalArgumentException("At least one ID is required");
+    }
+    if (ids.size() > mediaConfig.getMaxBatchIds()) {
+      throw new IllegalArgumentException(
+        "At most " + mediaConfig.getMaxBatchIds() + " IDs per batch"
+      );
+    }
+
+    Map<String, CompletableFuture<MediaBatchResultDto>> results = new LinkedHashMap<>();
+    try (
+      ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()
+    ) {
+      for (String id : ids) {
+        results.computeIfAbsent(
+          String.valueOf(id),
+          key ->
+            CompletableFuture.supplyAsync(
+              () -> listBatchEntry(id, limit),
+              executor
+            )
+        );
+      }
     }
 
+    List<MediaBatchResultDto> batch = new ArrayList<>(ids.size());
+    for (String id : ids) {
+      batch.add(results.get(String.valueOf(id)).join());
+    }
+    return batch;
+  }
+
+  private MediaBatchResultDto listBatchEntry(String id, Integer limit) {
     try {
-      Path path = Paths.get(file.getAbsolutePath());
-      String mimeType = Files.probeContentType(path);
-      return mimeType != null && mimeType.startsWith("video");
-    } catch (IOException e) {
-      return false;
+      MediaPageDto page = listMediaPage(id, null, limit);
+      return new MediaBatchResultDto(
+        id,
+        page.getItems(),
+        page.getNextCursor(),
+        null
+      );
+    } catch (IllegalArgumentException e) {
+      return new MediaBatchResultDto(id, null, null, e.getMessage());
+    } catch (RuntimeException e) {
+      logger.warn("Failed to list folder " + id + " in batch", e);
+      return new MediaBatchResultDto(id, null, null, "Failed to list folder");
     }
   }
 
-  public List<MediaDto> listMedia(String id) {
+  public List<MediaDto> searchMedia(String query, Integer limit) {
+    if (!StringUtils.hasText(query)) {
+      throw new IllegalArgumentException("Search query cannot be empty");
+    }
+    int maxResults = limit == null ? DEFAULT_SEARCH_LIMIT : limit;
+    if (maxResults <= 0 || maxResults > mediaConfig.getMaxListPageSize()) {
+      throw new IllegalArgumentException(
+        "Limit must be between 1 and " + mediaConfig.getMaxListPageSize()
+      );
+    }
+
+    List<MediaDto> results = new ArrayList<>();
+    for (Media media : libraryService.search(query, maxResults)) {
+      results.add(genericMapper.toDto(media, MediaDto.class));
+    }
+    return results;
+  }
+
+  private List<MediaDto> toDtoView(List<Media> entries) {
+    return new AbstractList<>() {
+      @Override
+      public MediaDto get(int index) {
+        return genericMapper.toDto(entries.get(index), MediaDto.class);
+      }
+
+      @Override
+      public int size() {
+        return entries.size();
+      }
+    };
+  }
+
+  private File resolveDirectory(String id) {
     String path;
 
     if (id == null) {
@@ -107,7 +233,7 @@ public class MediaService {
         );
       }
     } else {
-      path = pathCache.getPath(id);
+      path = mediaIdCodec.getPath(id);
       if (path == null) {
         throw new IllegalArgumentException("Invalid ID!");
       }
@@ -117,168 +243,250 @@ public class MediaService {
     if (!directory.exists() || !directory.isDirectory()) {
       throw new IllegalArgumentException("Invalid directory path!");
     }
-
-    List<MediaDto> children = new ArrayList<>();
-    for (File file : directory.listFiles()) {
-      List<Subtitle> subtitleLanguages = null;
-      if (
-        (!file.isDirectory() && !isVideoFile(file)) ||
-        (file.getName().equalsIgnoreCase("subs")) ||
-        (file.isHidden())
-      ) {
-        continue;
-      }
-      if (!file.isDirectory() && isVideoFile(file)) {
-        subtitleLanguages = subtitleService.getSubtitleLanguages(file);
-        subtitleService.extractSubtitles(file);
-      }
-      String generatedId = generateId(file.getAbsolutePath());
-      Media media = new Media(
-        generatedId,
-        file.getName(),
-        file.getAbsolutePath(),
-        file.isDirectory(),
-        file.isDirectory() ? null : file.length(),
-        file.isDirectory()
-          ? (long) (file.list() != null ? file.list().length : 0)
-          : null,
-        subtitleLanguages
-      );
-      pathCache.cache(generatedId, file.getAbsolutePath());
-      MediaDto mediaDto = genericMapper.toDto(media, MediaDto.class);
-      children.add(mediaDto);
-    }
-    children.sort(
-      new Comparator<MediaDto>() {
-        @Override
-        public int compare(MediaDto a, MediaDto b) {
-          if (a.getIsDirectory() && !b.getIsDirectory()) return -1;
-          if (!a.getIsDirectory() && b.getIsDirectory()) return 1;
-          return a.getName().compareToIgnoreCase(b.getName());
-        }
-      }
-    );
-    return children;
+    return directory;
   }
 
-  public MediaStreamDto streamVideo(String videoId, String range) {
-    if (activeStreams.get() >= mediaConfig.getMaxConcurrentStreams()) {
-      throw new RuntimeException(
-        "Too many concurrent streams. Please try again later."
-      );
-    }
-
+  public MediaStreamDto streamVideo(
+    String videoId,
+    HttpHeaders requestHeaders,
+    String clientAddress
+  ) {
     try {
-      activeStreams.incrementAndGet();
-
-      String path = pathCache.getPath(videoId);
+      String path = mediaIdCodec.getPath(videoId);
       if (path == null) {
         throw new IllegalArgumentException("Video not found");
       }
 
-      Path filePath = Paths.get(path);
-      if (!Files.exists(filePath)) {
-        throw new IllegalArgumentException("Video file not found");
-      }
-
-      long fileLength = filePath.toFile().length();
-      String contentType = Files.probeContentType(filePath);
-      if (contentType == null) {
-        contentType = "application/octet-stream";
+      File videoFile = new File(path);
+      if (videoFile.isHidden() || !contentTypeService.isVideo(videoFile)) {
+        throw new IllegalArgumentException("Video not found");
       }
 
-      if (range == null) {
-        Resource resource = new FileSystemResource(filePath);
-        return new MediaStreamDto(
-          resource,
-          new HttpHeaders(),
-          MediaType.parseMediaType(contentType),
-          HttpStatus.OK
+      if (!subtitleService.areSubtitlesExtracted(videoFile)) {
+        subtitleExtractionScheduler.schedule(
+          videoFile,
+          SubtitleExtractionScheduler.Priority.PLAYBACK
         );
       }
 
-      long rangeStart, rangeEnd;
+      FileChannelCache.Handle handle;
       try {
-        String[] ranges = range.replace("bytes=", "").split("-");
-        rangeStart = Long.parseLong(ranges[0]);
-
-        long requestedEnd = ranges.length > 1 && !ranges[1].isEmpty()
-          ? Long.parseLong(ranges[1])
-          : rangeStart + mediaConfig.getChunkSize() - 1;
-
-        rangeEnd =
-          Math.min(requestedEnd, rangeStart + mediaConfig.getChunkSize() - 1);
-        rangeEnd = Math.min(rangeEnd, fileLength - 1);
-      } catch (NumberFormatException e) {
-        throw new IllegalArgumentException("Invalid range format");
-      }
-
-      long contentLength = rangeEnd - rangeStart + 1;
-
-      if (contentLength > mediaConfig.getChunkSize()) {
-        contentLength = mediaConfig.getChunkSize();
-        rangeEnd = rangeStart + contentLength - 1;
+        handle = fileChannelCache.acquire(videoId, Paths.get(path));
+      } catch (NoSuchFileException e) {
+        throw new IllegalArgumentException("Video file not found");
       }
 
-      byte[] data = new byte[(int) contentLength];
-
-      try (
-        InputStream inputStream = Files.newInputStream(filePath);
-        java.io.BufferedInputStream bufferedStream = new java.io.BufferedInputStream(
-          inputStream,
-          8192
-        )
-      ) {
-        bufferedStream.skip(rangeStart);
-
-        int totalBytesRead = 0;
-        int bytesToRead = (int) contentLength;
-
-        while (totalBytesRead < bytesToRead) {
-          int bytesRead = bufferedStream.read(
-            data,
-            totalBytesRead,
-            bytesToRead - totalBytesRead
-          );
-          if (bytesRead == -1) break;
-          totalBytesRead += bytesRead;
-        }
-
-        if (totalBytesRead < contentLength) {
-          byte[] actualData = new byte[totalBytesRead];
-          System.arraycopy(data, 0, actualData, 0, totalBytesRead);
-          data = actualData;
-          contentLength = totalBytesRead;
-          rangeEnd = rangeStart + totalBytesRead - 1;
-        }
-
-        HttpHeaders headers = new HttpHeaders();
-        headers.add(
-          "Content-Range",
-          "bytes " + rangeStart + "-" + rangeEnd + "/" + fileLength
-        );
-        headers.add("Cache-Control", "no-cache, no-store, must-revalidate");
-        headers.add("Pragma", "no-cache");
-        headers.add("Expires", "0");
-        headers.add("X-Content-Type-Options", "nosniff");
-        headers.add("Accept-Ranges", "bytes");
-        headers.setContentLength(contentLength);
-
-        return new MediaStreamDto(
-          new ByteArrayResource(data),
-          headers,
-          MediaType.parseMediaType(contentType),
-          HttpStatus.PARTIAL_CONTENT
+      try {
+        return buildStreamResponse(
+          handle,
+          requestHeaders,
+          clientAddress,
+          videoId
         );
+      } catch (RuntimeException e) {
+        handle.close();
+        throw e;
       }
     } catch (IOException e) {
       throw new RuntimeException("Video stream failed: " + e.getMessage(), e);
-    } catch (IllegalArgumentException e) {
+    } catch (
+      IllegalArgumentException
+      | StreamRejectedException
+      | RangeNotSatisfiableException e
+    ) {
       throw e;
     } catch (Exception e) {
       throw new RuntimeException("Unexpected error during video streaming", e);
-    } finally {
-      activeStreams.decrementAndGet();
     }
   }
+
+  private MediaStreamDto buildStreamResponse(
+    FileChannelCache.Handle handle,
+    HttpHeaders requestHeaders,
+    String clientAddress,
+    String videoId
+  ) {
+    long fileLength = handle.getSize();
+    MediaType contentType = MediaType.parseMediaType(handle.getContentType());
+
+    HttpHeaders headers = new HttpHeaders();
+    headers.add("Accept-Ranges", "bytes");
+    headers.add("X-Content-Type-Options", "nosniff");
+    headers.setETag(handle.getETag());
+    headers.setLastModified(handle.getLastModified());
+    headers.setCacheControl(
+      HttpValidators.cacheControl(mediaConfig.getStreamCacheMaxAge())
+    );
+
+    if (
+      HttpValidators.isNotModified(
+        requestHeaders,
+        handle.getETag(),
+        handle.getLastModified()
+      )
+    ) {
+      handle.close();
+      return new MediaStreamDto(
+        null,
+        headers,
+        contentType,
+        HttpStatus.NOT_MODIFIED
+      );
+    }
+
+    PlaybackSession session = admit(clientAddress, videoId);
+    session.setBitrate(bitrateEstimator.estimate(handle));
+
+    String range = requestHeaders.getFirst(HttpHeaders.RANGE);
+    String ifRange = requestHeaders.getFirst(HttpHeaders.IF_RANGE);
+    List<ByteRange> requested = range != null && matchesIfRange(handle, ifRange)
+      ? ByteRange.parse(range)
+      : List.of();
+
+    if (requested.isEmpty()) {
+      headers.setContentLength(fileLength);
+      return new MediaStreamDto(
+        new FileRegion(handle, 0, fileLength, session),
+        headers,
+        contentType,
+        HttpStatus.OK
+      );
+    }
+
+    List<long[]> ranges = resolveRanges(requested, fileLength, session);
+    if (ranges.isEmpty()) {
+      throw new RangeNotSatisfiableException(fileLength);
+    }
+
+    if (ranges.size() == 1) {
+      long rangeStart = ranges.get(0)[0];
+      long rangeEnd = ranges.get(0)[1];
+      long contentLength = rangeEnd - rangeStart + 1;
+      readAheadPrefetcher.onRangeRequested(
+        session,
+        handle,
+        rangeStart,
+        contentLength
+      );
+
+      headers.add(
+        "Content-Range",
+        "bytes " + rangeStart + "-" + rangeEnd + "/" + fileLength
+      );
+      headers.setContentLength(contentLength);
+
+      return new MediaStreamDto(
+        new FileRegion(handle, rangeStart, contentLength, session),
+        headers,
+        contentType,
+        HttpStatus.PARTIAL_CONTENT
+      );
+    }
+
+    String boundary = UUID.randomUUID().toString().replace("-", "");
+    MultipartFileRegion regions = new MultipartFileRegion(
+      handle,
+      ranges,
+      contentType.toString(),
+      boundary,
+      session
+    );
+    headers.setContentLength(regions.contentLength());
+
+    return new MediaStreamDto(
+      regions,
+      headers,
+      MediaType.parseMediaType("multipart/byteranges; boundary=" + boundary),
+      HttpStatus.PARTIAL_CONTENT
+    );
+  }
+
+  private PlaybackSession admit(String clientAddress, String videoId) {
+    PlaybackSession session = playbackSessionRegistry.touch(
+      clientAddress,
+      videoId
+    );
+    while (!streamAdmissionController.admit(session)) {
+      session = playbackSessionRegistry.touch(clientAddress, videoId);
+    }
+    return session;
+  }
+
+  private boolean matchesIfRange(FileChannelCache.Handle handle, String ifRange) {
+    if (ifRange == null || ifRange.isBlank()) {
+      return true;
+    }
+
+    String value = ifRange.trim();
+    if (value.startsWith("\"") || value.startsWith("W/")) {
+      return value.equals(handle.getETag());
+    }
+
+    try {
+      long date = ZonedDateTime
+        .parse(value, DateTimeFormatter.RFC_1123_DATE_TIME)
+        .toInstant()
+        .toEpochMilli();
+      return date / 1000 == handle.getLastModified() / 1000;
+    } catch (DateTimeParseException e) {
+      return false;
+    }
+  }
+
+  private List<long[]> resolveRanges(
+    List<ByteRange> requested,
+    long fileLength,
+    PlaybackSession session
+  ) {
+    long maxChunkSize = mediaConfig.getMaxChunkSize();
+    long openEndedSize = requested.size() == 1
+      ? chunkSizeFor(session)
+      : maxChunkSize;
+    List<long[]> ranges = new ArrayList<>();
+
+    for (ByteRange range : requested) {
+      long start, end;
+      if (range.isSuffix()) {
+        if (range.last() == 0 || fileLength == 0) continue;
+        start = Math.max(0, fileLength - range.last());
+        end = Math.min(fileLength - 1, start + maxChunkSize - 1);
+      } else {
+        if (range.first() >= fileLength) continue;
+        start = range.first();
+        end = range.isOpenEnded()
+          ? start + openEndedSize - 1
+          : Math.min(range.last(), start + maxChunkSize - 1);
+        end = Math.min(end, fileLength - 1);
+      }
+      ranges.add(new long[] { start, end });
+    }
+
+    ranges.sort(Comparator.comparingLong(r -> r[0]));
+    List<long[]> merged = new ArrayList<>();
+    for (long[] range : ranges) {
+      long[] last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+      if (last != null && range[0] <= last[1] + 1) {
+        last[1] = Math.max(last[1], range[1]);
+      } else {
+        merged.add(range);
+      }
+    }
+    return merged;
+  }
+
+  private long chunkSizeFor(PlaybackSession session) {
+    double throughput = session.getThroughput();
+    if (throughput <= 0) {
+      return mediaConfig.getChunkSize();
+    }
+
+    long target = Math.max(
+      (long) (throughput * mediaConfig.getChunkTargetSeconds()),
+      session.getBitrate()
+    );
+    return Math.max(
+      mediaConfig.getMinChunkSize(),
+      Math.min(mediaConfig.getMaxChunkSize(), target)
+    );
+  }
 }
@@ -0,0 +1,161 @@
+package com.novastream.service;
+
+import com.novastream.util.FileChannelCache;
+import com.novastream.util.FileRegion;
+import com.novastream.util.MultipartFileRegion;
+import com.novastream.util.SegmentCache;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+@Service
+public class MediaStreamWriter {
+
+  @Autowired
+  private SegmentCache segmentCache;
+
+  @Autowired
+  private BandwidthShaper bandwidthShaper;
+
+  private static final long MIN_THROUGHPUT_SAMPLE = 64 * 1024;
+
+  public void write(FileRegion region, OutputStream outputStream)
+    throws IOException {
+    try {
+      writeRegion(
+        region.getHandle(),
+        region.getSession(),
+        region.getPosition(),
+        region.getCount(),
+        Channels.newChannel(outputStream)
+      );
+    } finally {
+      region.release();
+    }
+  }
+
+  public void write(
+    MultipartFileRegion regions,
+    OutputStream outputStream
+  ) throws IOException {
+    try {
+      WritableByteChannel target = Channels.newChannel(outputStream);
+      for (MultipartFileRegion.Part part : regions.getParts()) {
+        outputStream.write(part.header());
+        writeRegion(
+          regions.getHandle(),
+          regions.getSession(),
+          part.position(),
+          part.count(),
+          target
+        );
+      }
+      outputStream.write(regions.getTrailer());
+    } finally {
+      regions.release();
+    }
+  }
+
+  private void writeRegion(
+    FileChannelCache.Handle handle,
+    PlaybackSession session,
+    long position,
+    long count,
+    WritableByteChannel target
+  ) throws IOException {
+    try {
+      long segmentSize = segmentCache.getSegmentSize();
+      long remaining = count;
+      long startedAt = System.nanoTime();
+      long segmentIndex = -1;
+      ByteBuffer segment = null;
+
+      while (remaining > 0) {
+        if (session != null) {
+          session.touch();
+        }
+
+        long index = position / segmentSize;
+        int offset = (int) (position - index * segmentSize);
+        long length = Math.min(
+          Math.min(remaining, segmentSize - offset),
+          bandwidthShaper.getSliceSize()
+        );
+
+        bandwidthShaper.throttle(session, length);
+
+        if (index != segmentIndex) {
+          segment = segmentCache.get(handle, index);
+          segmentIndex = index;
+        }
+        long written = segment != null
+          ? writeSegment(segment.duplicate(), offset, length, target)
+          : transfer(handle.getChannel(), position, length, target);
+
+        if (written <= 0) break;
+        position += written;
+        remaining -= written;
+        if (session != null) {
+          session.recordDelivered(written);
+        }
+      }
+
+      long delivered = count - remaining;
+      if (session != null && delivered >= MIN_THROUGHPUT_SAMPLE) {
+        session.recordThroughput(delivered, System.nanoTime() - startedAt);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Stream interrupted");
+    } catch (IOException e) {
+      if (session != null) {
+        session.cancelPrefetches();
+      }
+      throw e;
+    }
+  }
+
+  private long writeSegment(
+    ByteBuffer segment,
+    int offset,
+    long length,
+    WritableByteChannel target
+  ) throws IOException {
+    if (offset >= segment.limit()) {
+      return 0;
+    }
+
+    segment.limit((int) Math.min(segment.limit(), offset + length));
+    segment.position(offset);
+    long written = segment.remaining();
+    while (segment.hasRemaining()) {
+      target.write(segment);
+    }
+    return written;
+  }
+
+  private long transfer(
+    FileChannel channel,
+    long position,
+    long length,
+    WritableByteChannel target
+  ) throws IOException {
+    long transferred = 0;
+    while (transferred < length) {
+      long count = channel.transferTo(
+        position + transferred,
+        length - transferred,
+        target
+      );
+      if (count <= 0) break;
+      transferred += count;
+    }
+    return transferred;
+  }
+}
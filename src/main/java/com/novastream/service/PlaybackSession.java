@@ -0,0 +1,144 @@
+package com.novastream.service;
+
+import com.novastream.util.TokenBucket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+
+public class PlaybackSession {
+
+  private final String clientAddress;
+  private final String videoId;
+  private final long createdAt = System.currentTimeMillis();
+
+  private volatile long lastAccess = createdAt;
+  private volatile boolean admitted = false;
+  private boolean closed = false;
+  private long nextOffset = -1;
+  private final List<Future<?>> prefetches = new ArrayList<>();
+
+  private long bitrate;
+  private long anchorTime = createdAt;
+  private long deliveredSinceAnchor = 0;
+  private TokenBucket bandwidthBucket;
+  private double throughput = 0;
+
+  public PlaybackSession(String clientAddress, String videoId, long bitrate) {
+    this.clientAddress = clientAddress;
+    this.videoId = videoId;
+    this.bitrate = bitrate;
+  }
+
+  public String getClientAddress() {
+    return clientAddress;
+  }
+
+  public String getVideoId() {
+    return videoId;
+  }
+
+  public long getCreatedAt() {
+    return createdAt;
+  }
+
+  public long getLastAccess() {
+    return lastAccess;
+  }
+
+  public boolean isAdmitted() {
+    return admitted;
+  }
+
+  public void setAdmitted(boolean admitted) {
+    this.admitted = admitted;
+  }
+
+  public synchronized boolean isClosed() {
+    return closed;
+  }
+
+  public synchronized boolean touch() {
+    if (closed) {
+      return false;
+    }
+    lastAccess = System.currentTimeMillis();
+    return true;
+  }
+
+  public synchronized boolean closeIfIdle(long cutoff) {
+    if (closed || lastAccess >= cutoff) {
+      return false;
+    }
+    closed = true;
+    return true;
+  }
+
+  public synchronized boolean advance(long start, long count) {
+    boolean sequential = start == nextOffset;
+    if (!sequential) {
+      cancelPrefetches();
+      anchorTime = System.currentTimeMillis();
+      deliveredSinceAnchor = 0;
+    }
+    nextOffset = start + count;
+    return sequential;
+  }
+
+  public synchronized long getBitrate() {
+    return bitrate;
+  }
+
+  public synchronized void setBitrate(long bitrate) {
+    this.bitrate = bitrate;
+  }
+
+  public synchronized double getThroughput() {
+    return throughput;
+  }
+
+  public synchronized void recordThroughput(long bytes, long nanos) {
+    if (nanos <= 0) {
+      return;
+    }
+    double sample = bytes * 1e9 / nanos;
+    throughput = throughput == 0 ? sample : throughput * 0.7 + sample * 0.3;
+  }
+
+  public synchronized void recordDelivered(long bytes) {
+    deliveredSinceAnchor += bytes;
+  }
+
+  public synchronized double getBufferedSeconds() {
+    if (bitrate <= 0) {
+      return Double.MAX_VALUE;
+    }
+    double deliveredSeconds = (double) deliveredSinceAnchor / bitrate;
+    double playedSeconds = (System.currentTimeMillis() - anchorTime) / 1000.0;
+    return deliveredSeconds - playedSeconds;
+  }
+
+  public synchronized TokenBucket getBandwidthBucket(long rate) {
+    if (bandwidthBucket == null) {
+      bandwidthBucket = new TokenBucket(rate);
+    } else if (bandwidthBucket.getRate() != rate) {
+      bandwidthBucket.setRate(rate);
+    }
+    return bandwidthBucket;
+  }
+
+  public synchronized void addPrefetch(Future<?> prefetch) {
+    prefetches.removeIf(Future::isDone);
+    prefetches.add(prefetch);
+  }
+
+  public synchronized void cancelPrefetches() {
+    for (Future<?> prefetch : prefetches) {
+      prefetch.cancel(false);
+    }
+    prefetches.clear();
+  }
+
+  public void close() {
+    cancelPrefetches();
+  }
+}
@@ -0,0 +1,66 @@
+package com.novastream.service;
+
+import com.novastream.config.MediaConfig;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+@Service
+public class PlaybackSessionRegistry {
+
+  @Autowired
+  private MediaConfig mediaConfig;
+
+  @Autowired
+  private StreamAdmissionController streamAdmissionController;
+
+  private final Map<String, PlaybackSession> sessions = new ConcurrentHashMap<>();
+
+  public PlaybackSession touch(String clientAddress, String videoId) {
+    String key = clientAddress + "|" + videoId;
+    while (true) {
+      PlaybackSession session = sessions.computeIfAbsent(
+        key,
+        k ->
+          new PlaybackSession(
+            clientAddress,
+            videoId,
+            mediaConfig.getAssumedBitrate()
+          )
+      );
+      if (session.touch()) {
+        return session;
+      }
+      sessions.remove(key, session);
+    }
+  }
+
+  public int size() {
+    return sessions.size();
+  }
+
+  @Scheduled(fixedDelay = 5000)
+  public void expireIdle() {
+    long cutoff =
+      System.currentTimeMillis() - mediaConfig.getSessionIdleTimeoutMs();
+    for (String key : sessions.keySet()) {
+      PlaybackSession[] expired = { null };
+      sessions.computeIfPresent(
+        key,
+        (k, session) -> {
+          if (!session.closeIfIdle(cutoff)) {
+            return session;
+          }
+          expired[0] = session;
+          return null;
+        }
+      );
+      if (expired[0] != null) {
+        expired[0].close();
+        streamAdmissionController.release(expired[0]);
+      }
+    }
+  }
+}
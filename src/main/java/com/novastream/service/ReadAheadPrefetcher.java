@@ -0,0 +1,123 @@
+package com.novastream.service;
+
+import com.novastream.config.MediaConfig;
+import com.novastream.util.FileChannelCache;
+import com.novastream.util.SegmentCache;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+@Service
+public class ReadAheadPrefetcher {
+
+  private static final Logger logger = LoggerFactory.getLogger(
+    ReadAheadPrefetcher.class
+  );
+
+  @Autowired
+  private MediaConfig mediaConfig;
+
+  @Autowired
+  private SegmentCache segmentCache;
+
+  private final LongAdder prefetchedSegments = new LongAdder();
+  private final LongAdder rejectedPrefetches = new LongAdder();
+
+  private ExecutorService executor;
+
+  private synchronized ExecutorService getExecutor() {
+    if (executor == null) {
+      int threads = Math.max(1, mediaConfig.getPrefetchThreads());
+      ThreadPoolExecutor pool = new ThreadPoolExecutor(
+        threads,
+        threads,
+        30,
+        TimeUnit.SECONDS,
+        new LinkedBlockingQueue<>(threads * 16),
+        runnable -> {
+          Thread thread = new Thread(runnable, "prefetch");
+          thread.setDaemon(true);
+          return thread;
+        },
+        (runnable, rejectedBy) -> {
+          rejectedPrefetches.increment();
+          if (runnable instanceof Future<?> future) {
+            future.cancel(false);
+          }
+        }
+      );
+      pool.allowCoreThreadTimeOut(true);
+      executor = pool;
+    }
+    return executor;
+  }
+
+  public void onRangeRequested(
+    PlaybackSession session,
+    FileChannelCache.Handle handle,
+    long start,
+    long count
+  ) {
+    if (
+      !session.advance(start, count) || mediaConfig.getPrefetchChunks() <= 0
+    ) {
+      return;
+    }
+
+    long segmentSize = segmentCache.getSegmentSize();
+    long chunkSize = Math.max(count, mediaConfig.getChunkSize());
+    long from = start + count;
+    long to = Math.min(
+      handle.getSize(),
+      from + mediaConfig.getPrefetchChunks() * chunkSize
+    );
+
+    for (long index = from / segmentSize; index * segmentSize < to; index++) {
+      if (segmentCache.contains(handle, index)) {
+        continue;
+      }
+
+      long segmentIndex = index;
+      session.addPrefetch(
+        getExecutor()
+          .submit(() -> {
+            FileChannelCache.Handle prefetchHandle = handle.retain();
+            if (prefetchHandle == null) {
+              return;
+            }
+            try (prefetchHandle) {
+              if (segmentCache.prefetch(prefetchHandle, segmentIndex)) {
+                prefetchedSegments.increment();
+              }
+            } catch (IOException e) {
+              logger.debug("Prefetch failed: " + e.getMessage());
+            }
+          })
+      );
+    }
+  }
+
+  public long getPrefetchedSegments() {
+    return prefetchedSegments.sum();
+  }
+
+  public long getRejectedPrefetches() {
+    return rejectedPrefetches.sum();
+  }
+
+  @PreDestroy
+  public synchronized void shutdown() {
+    if (executor != null) {
+      executor.shutdownNow();
+    }
+  }
+}
@@ -0,0 +1,128 @@
+package com.novastream.service;
+
+import com.novastream.config.MediaConfig;
+import com.novastream.exception.StreamRejectedException;
+import jakarta.annotation.PostConstruct;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+@Service
+public class StreamAdmissionController {
+
+  @Autowired
+  private MediaConfig mediaConfig;
+
+  private Semaphore streamPermits;
+
+  private final Map<String, Integer> streamsPerClient = new ConcurrentHashMap<>();
+
+  private final LongAdder rejected = new LongAdder();
+
+  @PostConstruct
+  public void init() {
+    streamPermits = new Semaphore(mediaConfig.getMaxConcurrentStreams(), true);
+  }
+
+  public boolean admit(PlaybackSession session) {
+    synchronized (session) {
+      if (session.isClosed()) {
+        return false;
+      }
+      if (session.isAdmitted()) {
+        return true;
+      }
+    }
+
+    String clientAddress = session.getClientAddress();
+    if (!reserveClientSlot(clientAddress)) {
+      rejected.increment();
+      throw new StreamRejectedException(
+        "Too many concurrent streams from this client",
+        mediaConfig.getAdmissionRetryAfterSeconds()
+      );
+    }
+
+    boolean acquired = false;
+    try {
+      acquired =
+        streamPermits.tryAcquire(
+          mediaConfig.getAdmissionTimeoutMs(),
+          TimeUnit.MILLISECONDS
+        );
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+
+    if (!acquired) {
+      releaseClientSlot(clientAddress);
+      rejected.increment();
+      throw new StreamRejectedException(
+        "Too many concurrent streams. Please try again later.",
+        mediaConfig.getAdmissionRetryAfterSeconds()
+      );
+    }
+
+    synchronized (session) {
+      if (!session.isClosed() && !session.isAdmitted()) {
+        session.setAdmitted(true);
+        return true;
+      }
+    }
+    releaseClientSlot(clientAddress);
+    streamPermits.release();
+    return !session.isClosed();
+  }
+
+  public void release(PlaybackSession session) {
+    synchronized (session) {
+      if (!session.isAdmitted()) {
+        return;
+      }
+      session.setAdmitted(false);
+      releaseClientSlot(session.getClientAddress());
+      streamPermits.release();
+    }
+  }
+
+  public Map<String, Object> getStats() {
+    Map<String, Object> stats = new LinkedHashMap<>();
+    stats.put(
+      "activeStreams",
+      mediaConfig.getMaxConcurrentStreams() - streamPermits.availablePermits()
+    );
+    stats.put("maxConcurrentStreams", mediaConfig.getMaxConcurrentStreams());
+    stats.put("queued", streamPermits.getQueueLength());
+    stats.put("rejected", rejected.sum());
+    return stats;
+  }
+
+  private boolean reserveClientSlot(String clientAddress) {
+    int limit = mediaConfig.getMaxStreamsPerClient();
+    boolean[] reserved = { false };
+    streamsPerClient.compute(
+      clientAddress,
+      (key, count) -> {
+        int current = count == null ? 0 : count;
+        if (current >= limit) {
+          return count;
+        }
+        reserved[0] = true;
+        return current + 1;
+      }
+    );
+    return reserved[0];
+  }
+
+  private void releaseClientSlot(String clientAddress) {
+    streamsPerClient.computeIfPresent(
+      clientAddress,
+      (key, count) -> count <= 1 ? null : count - 1
+    );
+  }
+}
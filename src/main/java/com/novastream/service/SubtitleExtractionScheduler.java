@@ -0,0 +1,218 @@
+package com.novastream.service;
+
+import com.novastream.config.MediaConfig;
+import jakarta.annotation.PreDestroy;
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+@Service
+public class SubtitleExtractionScheduler {
+
+  private static final Logger logger = LoggerFactory.getLogger(
+    SubtitleExtractionScheduler.class
+  );
+
+  public enum Priority {
+    PLAYBACK,
+    BACKGROUND,
+  }
+
+  private static final long INITIAL_BACKOFF_MS = 60_000;
+  private static final long MAX_BACKOFF_MS = 3_600_000;
+
+  @Autowired
+  private MediaConfig mediaConfig;
+
+  @Autowired
+  private SubtitleService subtitleService;
+
+  private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+  private final Map<String, Failure> failures = new ConcurrentHashMap<>();
+
+  private final AtomicLong sequence = new AtomicLong();
+  private final AtomicInteger running = new AtomicInteger();
+
+  private final LongAdder completed = new LongAdder();
+  private final LongAdder deduplicated = new LongAdder();
+  private final LongAdder promoted = new LongAdder();
+  private final LongAdder cancelled = new LongAdder();
+  private final LongAdder backedOff = new LongAdder();
+
+  private ThreadPoolExecutor executor;
+
+  private synchronized ThreadPoolExecutor getExecutor() {
+    if (executor == null) {
+      int threads = Math.max(1, mediaConfig.getSubtitleExtractionThreads());
+      executor =
+        new ThreadPoolExecutor(
+          threads,
+          threads,
+          30,
+          TimeUnit.SECONDS,
+          new PriorityBlockingQueue<>(),
+          runnable -> {
+            Thread thread = new Thread(runnable, "subtitle-extraction");
+            thread.setDaemon(true);
+            return thread;
+          }
+        );
+      executor.allowCoreThreadTimeOut(true);
+    }
+    return executor;
+  }
+
+  public void schedule(File videoFile, Priority priority) {
+    if (subtitleService.areSubtitlesExtracted(videoFile)) {
+      return;
+    }
+
+    String path = videoFile.getAbsolutePath();
+    Failure failure = failures.get(path);
+    if (
+      failure != null &&
+      failure.lastModified() == videoFile.lastModified() &&
+      failure.retryAt() > System.currentTimeMillis()
+    ) {
+      backedOff.increment();
+      return;
+    }
+
+    Job job = new Job(videoFile, priority, sequence.incrementAndGet());
+    Job existing = jobs.putIfAbsent(path, job);
+    if (existing == null) {
+      getExecutor().execute(job);
+      return;
+    }
+
+    deduplicated.increment();
+    if (priority.compareTo(existing.priority) < 0 && !existing.started) {
+      ThreadPoolExecutor pool = getExecutor();
+      if (pool.getQueue().remove(existing)) {
+        existing.priority = priority;
+        pool.execute(existing);
+        promoted.increment();
+      }
+    }
+  }
+
+  public boolean cancel(String path) {
+    failures.remove(path);
+    Job job = jobs.get(path);
+    if (job == null || job.started) {
+      return false;
+    }
+
+    if (getExecutor().getQueue().remove(job)) {
+      jobs.remove(path, job);
+      cancelled.increment();
+      return true;
+    }
+    return false;
+  }
+
+  public Map<String, Object> getStats() {
+    Map<String, Object> stats = new LinkedHashMap<>();
+    stats.put("queued", jobs.size() - running.get());
+    stats.put("running", running.get());
+    stats.put("completed", completed.sum());
+    stats.put("deduplicated", deduplicated.sum());
+    stats.put("promoted", promoted.sum());
+    stats.put("cancelled", cancelled.sum());
+    stats.put("failing", failures.size());
+    stats.put("backedOff", backedOff.sum());
+    return stats;
+  }
+
+  @PreDestroy
+  public synchronized void shutdown() {
+    if (executor != null) {
+      executor.shutdownNow();
+    }
+  }
+
+  private void recordOutcome(File videoFile) {
+    String path = videoFile.getAbsolutePath();
+    if (subtitleService.areSubtitlesExtracted(videoFile)) {
+      failures.remove(path);
+      return;
+    }
+
+    long lastModified = videoFile.lastModified();
+    failures.compute(
+      path,
+      (key, previous) -> {
+        int attempts = previous != null &&
+          previous.lastModified() == lastModified
+          ? previous.attempts() + 1
+          : 1;
+        long backoff = Math.min(
+          MAX_BACKOFF_MS,
+          INITIAL_BACKOFF_MS << Math.min(attempts - 1, 6)
+        );
+        return new Failure(
+          lastModified,
+          attempts,
+          System.currentTimeMillis() + backoff
+        );
+      }
+    );
+  }
+
+  private record Failure(long lastModified, int attempts, long retryAt) {}
+
+  private class Job implements Runnable, Comparable<Job> {
+
+    private final File videoFile;
+    private final long sequence;
+    private volatile Priority priority;
+    private volatile boolean started = false;
+
+    private Job(File videoFile, Priority priority, long sequence) {
+      this.videoFile = videoFile;
+      this.priority = priority;
+      this.sequence = sequence;
+    }
+
+    @Override
+    public void run() {
+      started = true;
+      running.incrementAndGet();
+      try {
+        subtitleService.extractSubtitles(videoFile);
+      } catch (RuntimeException e) {
+        logger.debug(
+          "Subtitle extraction failed for " +
+          videoFile.getName() +
+          ": " +
+          e.getMessage()
+        );
+      } finally {
+        recordOutcome(videoFile);
+        running.decrementAndGet();
+        jobs.remove(videoFile.getAbsolutePath(), this);
+        completed.increment();
+      }
+    }
+
+    @Override
+    public int compareTo(Job other) {
+      int byPriority = priority.compareTo(other.priority);
+      return byPriority != 0
+        ? byPriority
+        : Long.compare(sequence, other.sequence);
+    }
+  }
+}
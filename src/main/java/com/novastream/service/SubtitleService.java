@@ -1,18 +1,24 @@
 package com.novastream.service;
 
+import com.novastream.config.MediaConfig;
 import com.novastream.dto.MediaStreamDto;
 import com.novastream.model.Subtitle;
 import com.novastream.util.BinaryExtractor;
-import com.novastream.util.PathCache;
+import com.novastream.util.ContainerInspector;
+import com.novastream.util.HttpValidators;
+import com.novastream.util.MatroskaSubtitleDemuxer;
+import com.novastream.util.MediaIdCodec;
+import com.novastream.util.ProbeCache;
+import com.novastream.util.ProcessLimiter;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -23,7 +29,6 @@ import org.springframework.core.io.FileSystemResource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.util.MimeTypeUtils;
 
@@ -34,26 +39,26 @@ public class SubtitleService {
     SubtitleService.class
   );
 
+  private static final String SUBTITLE_STREAMS = "subtitle-streams";
+
   private final String ffmpegPath = BinaryExtractor.getBinaryPath("ffmpeg");
 
   private final String ffprobePath = BinaryExtractor.getBinaryPath("ffprobe");
 
   @Autowired
-  private PathCache pathCache;
+  private MediaIdCodec mediaIdCodec;
 
-  private Boolean isVideoFile(File file) {
-    if (file == null || !file.exists() || !file.isFile()) {
-      return false;
-    }
+  @Autowired
+  private MediaConfig mediaConfig;
 
-    try {
-      Path path = Paths.get(file.getAbsolutePath());
-      String mimeType = Files.probeContentType(path);
-      return mimeType != null && mimeType.startsWith("video");
-    } catch (IOException e) {
-      return false;
-    }
-  }
+  @Autowired
+  private ProcessLimiter processLimiter;
+
+  @Autowired
+  private ContentTypeService contentTypeService;
+
+  @Autowired
+  private ProbeCache probeCache;
 
   private String getLanguageName(String code) {
     if (code == null || code.isBlank() || code.equalsIgnoreCase("und")) {
@@ -87,25 +92,7 @@ public class SubtitleService {
     }
 
     try {
-      Process probe = new ProcessBuilder(
-        ffprobePath,
-        "-v",
-        "error",
-        "-select_streams",
-        "s",
-        "-show_entries",
-        "stream=index,codec_name:stream_tags=language",
-        "-of",
-        "csv=p=0",
-        videoFile.getAbsolutePath()
-      )
-        .redirectErrorStream(true)
-        .start();
-
-      InputStream stream = probe.getInputStream();
-      String output = new String(stream.readAllBytes());
-      stream.close();
-      probe.waitFor();
+      String output = probeSubtitleStreams(videoFile);
 
       for (String line : output.split("\n")) {
         String trimmed = line.trim();
@@ -120,6 +107,7 @@ public class SubtitleService {
             if (
               codec.equals("ass") ||
               codec.equals("subrip") ||
+              codec.equals("text") ||
               codec.equals("ssa") ||
               codec.equals("srt")
             ) {
@@ -137,7 +125,7 @@ public class SubtitleService {
     return subtitleLanguages;
   }
 
-  private Boolean areSubtitlesAlreadyExtracted(File videoFile) {
+  public boolean areSubtitlesExtracted(File videoFile) {
     String videoName = videoFile
       .getName()
       .substring(0, videoFile.getName().lastIndexOf('.'));
@@ -147,9 +135,8 @@ public class SubtitleService {
     return subsFolder.exists() && subsFolder.isDirectory();
   }
 
-  @Async
   public void extractSubtitles(File videoFile) {
-    if (areSubtitlesAlreadyExtracted(videoFile)) {
+    if (areSubtitlesExtracted(videoFile)) {
       logger.debug("Subtitles already extracted for: " + videoFile.getName());
       return;
     }
@@ -158,15 +145,56 @@ public class SubtitleService {
       .getName()
       .substring(0, videoFile.getName().lastIndexOf('.'));
     File parent = videoFile.getParentFile();
+    File subsFolder = new File(parent, "subs" + File.separator + videoName);
+    File partialFolder = new File(
+      parent,
+      "subs" + File.separator + "." + videoName + ".partial"
+    );
+
+    deleteFolder(partialFolder);
+    partialFolder.mkdirs();
+    try {
+      if (!writeSubtitles(videoFile, partialFolder)) {
+        logger.debug("No subtitle tracks extracted for " + videoFile.getName());
+        deleteFolder(partialFolder);
+        return;
+      }
+      Files.move(
+        partialFolder.toPath(),
+        subsFolder.toPath(),
+        StandardCopyOption.ATOMIC_MOVE
+      );
+    } catch (IOException e) {
+      logger.debug(
+        "Failed to publish subtitles for " +
+        videoFile.getName() +
+        ": " +
+        e.getMessage()
+      );
+      deleteFolder(partialFolder);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      deleteFolder(partialFolder);
+    }
+  }
+
+  private void deleteFolder(File folder) {
+    File[] files = folder.listFiles();
+    if (files != null) {
+      for (File file : files) {
+        file.delete();
+      }
+    }
+    folder.delete();
+  }
 
-    String subsFolderPath =
-      parent.getAbsolutePath() +
-      File.separator +
-      "subs" +
-      File.separator +
-      videoName;
-    File subsFolder = new File(subsFolderPath);
-    subsFolder.mkdirs();
+  private boolean writeSubtitles(File videoFile, File subsFolder)
+    throws InterruptedException {
+    String videoName = videoFile
+      .getName()
+      .substring(0, videoFile.getName().lastIndexOf('.'));
+    File parent = videoFile.getParentFile();
+    String subsFolderPath = subsFolder.getAbsolutePath();
 
     @SuppressWarnings("unused")
     File[] externalSubs = parent.listFiles((dir, name) ->
@@ -194,24 +222,7 @@ public class SubtitleService {
     }
 
     try {
-      Process probe = new ProcessBuilder(
-        "ffprobe",
-        "-v",
-        "error",
-        "-select_streams",
-        "s",
-        "-show_entries",
-        "stream=index,codec_name:stream_tags=language",
-        "-of",
-        "csv=p=0",
-        videoFile.getAbsolutePath()
-      )
-        .start();
-
-      InputStream stream = probe.getInputStream();
-      String output = new String(stream.readAllBytes());
-      stream.close();
-      probe.waitFor();
+      String output = probeSubtitleStreams(videoFile);
 
       List<Integer> subtitleIndices = new ArrayList<>();
       List<String> subtitleLangs = new ArrayList<>();
@@ -241,6 +252,8 @@ public class SubtitleService {
       }
 
       Map<String, Integer> langCounter = new HashMap<>();
+      List<Integer> textStreams = new ArrayList<>();
+      List<String> textFiles = new ArrayList<>();
 
       for (int i = 0; i < subtitleIndices.size(); i++) {
         int streamIndex = subtitleIndices.get(i);
@@ -251,6 +264,7 @@ public class SubtitleService {
           !(
             codec.equals("ass") ||
             codec.equals("subrip") ||
+            codec.equals("text") ||
             codec.equals("ssa") ||
             codec.equals("srt")
           )
@@ -274,46 +288,168 @@ public class SubtitleService {
           subFileName += "-" + (count - 1);
         }
         subFileName += ".srt";
-        String subFilePath = subsFolderPath + File.separator + subFileName;
-
-        ProcessBuilder builder = new ProcessBuilder(
-          ffmpegPath,
-          "-y",
-          "-i",
-          videoFile.getAbsolutePath(),
-          "-map",
-          "0:" + streamIndex,
-          "-c:s",
-          "srt",
-          subFilePath
-        )
-          .redirectOutput(ProcessBuilder.Redirect.DISCARD)
-          .redirectError(ProcessBuilder.Redirect.DISCARD);
-        Process p = builder.start();
-        int exitCode = p.waitFor();
+        textStreams.add(streamIndex);
+        textFiles.add(subsFolderPath + File.separator + subFileName);
+      }
+
+      if (textStreams.isEmpty()) {
+        return true;
+      }
+
+      Map<Integer, Path> outputs = new LinkedHashMap<>();
+      for (int i = 0; i < textStreams.size(); i++) {
+        outputs.put(textStreams.get(i), Path.of(textFiles.get(i)));
+      }
+      if (MatroskaSubtitleDemuxer.extract(videoFile.toPath(), outputs)) {
+        logger.debug(
+          "Extracted " +
+          outputs.size() +
+          " subtitle tracks in-process for " +
+          videoFile.getName()
+        );
+        return true;
+      }
+
+      List<String> command = new ArrayList<>(
+        List.of(ffmpegPath, "-y", "-i", videoFile.getAbsolutePath())
+      );
+      for (int i = 0; i < textStreams.size(); i++) {
+        command.addAll(
+          List.of(
+            "-map",
+            "0:" + textStreams.get(i),
+            "-c:s",
+            "srt",
+            textFiles.get(i)
+          )
+        );
+      }
+      boolean extractedAll = runFfmpeg(command);
+
+      int written = 0;
+      for (int i = 0; i < textStreams.size(); i++) {
+        File subFile = new File(textFiles.get(i));
+        if (extractedAll && subFile.exists()) {
+          logger.debug("Extracted subtitle: " + subFile.getName());
+          written++;
+          continue;
+        }
 
-        if (exitCode != 0) {
+        boolean extracted = runFfmpeg(
+          List.of(
+            ffmpegPath,
+            "-y",
+            "-i",
+            videoFile.getAbsolutePath(),
+            "-map",
+            "0:" + textStreams.get(i),
+            "-c:s",
+            "srt",
+            textFiles.get(i)
+          )
+        );
+        if (extracted) {
+          logger.debug("Extracted subtitle: " + subFile.getName());
+          written++;
+        } else {
+          subFile.delete();
           logger.debug(
-            "Failed to extract embedded subtitle stream " + streamIndex
+            "Failed to extract embedded subtitle stream " + textStreams.get(i)
           );
-        } else {
-          logger.debug("Extracted subtitle: " + subFileName);
         }
       }
-    } catch (IOException | InterruptedException e) {
+      return written > 0;
+    } catch (IOException e) {
       logger.debug(
         "Subtitle extraction failed for " +
         videoFile.getName() +
         ": " +
         e.getMessage()
       );
+      return false;
+    }
+  }
+
+  private String probeSubtitleStreams(File videoFile)
+    throws IOException, InterruptedException {
+    Path path = videoFile.toPath();
+    long size = videoFile.length();
+    long lastModified = videoFile.lastModified();
+    String cached = probeCache.get(SUBTITLE_STREAMS, path, size, lastModified);
+    if (cached != null) {
+      return cached;
+    }
+
+    List<ContainerInspector.Track> tracks = ContainerInspector.inspect(path);
+    if (tracks != null) {
+      StringBuilder streams = new StringBuilder();
+      for (ContainerInspector.Track track : tracks) {
+        if (track.type().equals(ContainerInspector.SUBTITLE)) {
+          streams
+            .append(track.index())
+            .append(',')
+            .append(track.codec())
+            .append(',')
+            .append(track.language())
+            .append('\n');
+        }
+      }
+      String output = streams.toString();
+      probeCache.put(SUBTITLE_STREAMS, path, size, lastModified, output);
+      return output;
+    }
+
+    String output;
+    int exitCode;
+    processLimiter.acquire();
+    try {
+      Process probe = new ProcessBuilder(
+        ffprobePath,
+        "-v",
+        "error",
+        "-select_streams",
+        "s",
+        "-show_entries",
+        "stream=index,codec_name:stream_tags=language",
+        "-of",
+        "csv=p=0",
+        videoFile.getAbsolutePath()
+      )
+        .redirectError(ProcessBuilder.Redirect.DISCARD)
+        .start();
+
+      InputStream stream = probe.getInputStream();
+      output = new String(stream.readAllBytes());
+      stream.close();
+      exitCode = probe.waitFor();
+    } finally {
+      processLimiter.release();
+    }
+
+    if (exitCode != 0) {
+      throw new IOException("ffprobe exited with code " + exitCode);
+    }
+    probeCache.put(SUBTITLE_STREAMS, path, size, lastModified, output);
+    return output;
+  }
+
+  private boolean runFfmpeg(List<String> command)
+    throws IOException, InterruptedException {
+    ProcessBuilder builder = new ProcessBuilder(command)
+      .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+      .redirectError(ProcessBuilder.Redirect.DISCARD);
+    processLimiter.acquire();
+    try {
+      return builder.start().waitFor() == 0;
+    } finally {
+      processLimiter.release();
     }
   }
 
   public MediaStreamDto getSubtitlesForVideo(String videoId, String langCode) {
-    String videoPath = pathCache.getPath(videoId);
+    String videoPath = mediaIdCodec.getPath(videoId);
     File videoFile = new File(videoPath);
-    if (videoFile == null || !videoFile.exists() || !isVideoFile(videoFile)) {
+    if (videoFile == null || !contentTypeService.isVideo(videoFile)) {
       throw new RuntimeException("Video not found for id: " + videoId);
     }
 
@@ -358,6 +494,16 @@ public class SubtitleService {
         "inline; filename=\"" + subtitleFile.getName() + "\""
       );
       headers.setContentLength(Files.size(path));
+      headers.setETag(
+        HttpValidators.strongETag(
+          Files.size(path),
+          Files.getLastModifiedTime(path).toMillis()
+        )
+      );
+      headers.setLastModified(Files.getLastModifiedTime(path).toMillis());
+      headers.setCacheControl(
+        HttpValidators.cacheControl(mediaConfig.getSubtitleCacheMaxAge())
+      );
 
       return new MediaStreamDto(
         resource,
@@ -61,6 +61,6 @@ public class BinaryExtractor {
 
   public static String getBinaryPath(String name) {
     File file = extractedBinaries.get(name);
-    return file != null ? file.getAbsolutePath() : null;
+    return file != null ? file.getAbsolutePath() : name;
   }
 }
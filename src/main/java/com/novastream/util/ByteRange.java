@@ -0,0 +1,67 @@
+package com.novastream.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public record ByteRange(Long first, Long last) {
+  public static final int MAX_RANGES = 16;
+
+  public boolean isSuffix() {
+    return first == null;
+  }
+
+  public boolean isOpenEnded() {
+    return first != null && last == null;
+  }
+
+  public static List<ByteRange> parse(String header) {
+    if (header == null) {
+      return List.of();
+    }
+
+    String value = header.trim();
+    if (!value.regionMatches(true, 0, "bytes=", 0, 6)) {
+      return List.of();
+    }
+
+    String[] specs = value.substring(6).split(",");
+    if (specs.length > MAX_RANGES) {
+      return List.of();
+    }
+
+    List<ByteRange> ranges = new ArrayList<>();
+    for (String spec : specs) {
+      String trimmed = spec.trim();
+      if (trimmed.isEmpty()) {
+        continue;
+      }
+
+      int dash = trimmed.indexOf('-');
+      if (dash < 0) {
+        return List.of();
+      }
+
+      String firstPart = trimmed.substring(0, dash).trim();
+      String lastPart = trimmed.substring(dash + 1).trim();
+      try {
+        if (firstPart.isEmpty()) {
+          long suffix = Long.parseLong(lastPart);
+          if (suffix < 0) {
+            return List.of();
+          }
+          ranges.add(new ByteRange(null, suffix));
+        } else {
+          long first = Long.parseLong(firstPart);
+          Long last = lastPart.isEmpty() ? null : Long.parseLong(lastPart);
+          if (first < 0 || (last != null && last < first)) {
+            return List.of();
+          }
+          ranges.add(new ByteRange(first, last));
+        }
+      } catch (NumberFormatException e) {
+        return List.of();
+      }
+    }
+    return ranges;
+  }
+}
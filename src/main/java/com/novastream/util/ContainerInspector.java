@@ -0,0 +1,374 @@
+package com.novastream.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+public final class ContainerInspector {
+
+  public static final String VIDEO = "video";
+  public static final String AUDIO = "audio";
+  public static final String SUBTITLE = "subtitle";
+
+  private static final int MAX_TOP_LEVEL_ELEMENTS = 256;
+
+  private static final Map<String, String> MATROSKA_CODECS = Map.ofEntries(
+    Map.entry("S_TEXT/UTF8", "subrip"),
+    Map.entry("S_TEXT/ASCII", "text"),
+    Map.entry("S_TEXT/ASS", "ass"),
+    Map.entry("S_TEXT/SSA", "ass"),
+    Map.entry("S_ASS", "ass"),
+    Map.entry("S_SSA", "ass"),
+    Map.entry("S_TEXT/WEBVTT", "webvtt"),
+    Map.entry("S_HDMV/PGS", "hdmv_pgs_subtitle"),
+    Map.entry("S_VOBSUB", "dvd_subtitle"),
+    Map.entry("S_DVBSUB", "dvb_subtitle"),
+    Map.entry("A_AAC", "aac"),
+    Map.entry("A_AC3", "ac3"),
+    Map.entry("A_EAC3", "eac3"),
+    Map.entry("A_DTS", "dts"),
+    Map.entry("A_TRUEHD", "truehd"),
+    Map.entry("A_OPUS", "opus"),
+    Map.entry("A_VORBIS", "vorbis"),
+    Map.entry("A_FLAC", "flac"),
+    Map.entry("A_MPEG/L3", "mp3"),
+    Map.entry("A_MPEG/L2", "mp2"),
+    Map.entry("V_MPEG4/ISO/AVC", "h264"),
+    Map.entry("V_MPEGH/ISO/HEVC", "hevc"),
+    Map.entry("V_AV1", "av1"),
+    Map.entry("V_VP8", "vp8"),
+    Map.entry("V_VP9", "vp9")
+  );
+
+  private static final Map<String, String> MP4_CODECS = Map.ofEntries(
+    Map.entry("tx3g", "mov_text"),
+    Map.entry("text", "mov_text"),
+    Map.entry("wvtt", "webvtt"),
+    Map.entry("stpp", "ttml"),
+    Map.entry("c608", "eia_608"),
+    Map.entry("mp4a", "aac"),
+    Map.entry("ac-3", "ac3"),
+    Map.entry("ec-3", "eac3"),
+    Map.entry("opus", "opus"),
+    Map.entry("fLaC", "flac"),
+    Map.entry("alac", "alac"),
+    Map.entry("avc1", "h264"),
+    Map.entry("avc3", "h264"),
+    Map.entry("hvc1", "hevc"),
+    Map.entry("hev1", "hevc"),
+    Map.entry("av01", "av1"),
+    Map.entry("vp09", "vp9")
+  );
+
+  private ContainerInspector() {}
+
+  public record Track(int index, String type, String codec, String language) {}
+
+  public static List<Track> inspect(Path path) {
+    try (
+      FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)
+    ) {
+      ByteBuffer header = Ebml.read(channel, 0, 12);
+      if (header.remaining() < 8) {
+        return null;
+      }
+      if (header.getInt(0) == Ebml.HEADER) {
+        return inspectMatroska(channel);
+      }
+      String brand = fourCC(header, 4);
+      if (
+        brand.equals("ftyp") || brand.equals("moov") || brand.equals("wide")
+      ) {
+        return inspectMp4(channel);
+      }
+      return null;
+    } catch (IOException | RuntimeException e) {
+      return null;
+    }
+  }
+
+  private static List<Track> inspectMatroska(FileChannel channel)
+    throws IOException {
+    long size = channel.size();
+    Ebml.Element ebml = Ebml.readElementHeader(channel, 0);
+    if (ebml == null || ebml.size() < 0) {
+      return null;
+    }
+
+    Ebml.Element segment = Ebml.readElementHeader(channel, ebml.end());
+    if (segment == null || segment.id() != Ebml.SEGMENT) {
+      return null;
+    }
+    long segmentStart = segment.dataStart();
+    long segmentEnd = segment.size() < 0
+      ? size
+      : Math.min(size, segment.end());
+
+    long tracksPosition = -1;
+    long position = segmentStart;
+    for (int i = 0; i < MAX_TOP_LEVEL_ELEMENTS && position < segmentEnd; i++) {
+      Ebml.Element element = Ebml.readElementHeader(channel, position);
+      if (element == null) {
+        break;
+      }
+      if (element.id() == Ebml.TRACKS) {
+        return parseTracks(Ebml.readPayload(channel, element));
+      }
+      if (element.id() == Ebml.SEEK_HEAD && tracksPosition < 0) {
+        tracksPosition =
+          findSeekPosition(Ebml.readPayload(channel, element));
+        if (tracksPosition >= 0) {
+          tracksPosition += segmentStart;
+        }
+      }
+      if (element.id() == Ebml.CLUSTER || element.size() < 0) {
+        break;
+      }
+      position = element.end();
+    }
+
+    if (tracksPosition >= 0) {
+      Ebml.Element tracks = Ebml.readElementHeader(channel, tracksPosition);
+      if (tracks != null && tracks.id() == Ebml.TRACKS) {
+        return parseTracks(Ebml.readPayload(channel, tracks));
+      }
+    }
+    return null;
+  }
+
+  private static long findSeekPosition(ByteBuffer seekHead) {
+    while (seekHead.hasRemaining()) {
+      int id = Ebml.readId(seekHead);
+      long size = Ebml.readSize(seekHead);
+      if (id < 0 || size < 0 || size > seekHead.remaining()) {
+        return -1;
+      }
+      ByteBuffer payload = Ebml.slice(seekHead, (int) size);
+      if (id != Ebml.SEEK) {
+        continue;
+      }
+
+      long seekId = -1;
+      long seekPosition = -1;
+      while (payload.hasRemaining()) {
+        int childId = Ebml.readId(payload);
+        long childSize = Ebml.readSize(payload);
+        if (childId < 0 || childSize < 0 || childSize > payload.remaining()) {
+          break;
+        }
+        ByteBuffer value = Ebml.slice(payload, (int) childSize);
+        if (childId == Ebml.SEEK_ID) {
+          seekId = Ebml.readUnsigned(value);
+        } else if (childId == Ebml.SEEK_POSITION) {
+          seekPosition = Ebml.readUnsigned(value);
+        }
+      }
+      if (seekId == Ebml.TRACKS) {
+        return seekPosition;
+      }
+    }
+    return -1;
+  }
+
+  private static List<Track> parseTracks(ByteBuffer tracks) {
+    List<Track> result = new ArrayList<>();
+    while (tracks.hasRemaining()) {
+      int id = Ebml.readId(tracks);
+      long size = Ebml.readSize(tracks);
+      if (id < 0 || size < 0 || size > tracks.remaining()) {
+        break;
+      }
+      ByteBuffer entry = Ebml.slice(tracks, (int) size);
+      if (id != Ebml.TRACK_ENTRY) {
+        continue;
+      }
+
+      long trackType = 0;
+      String codecId = "";
+      String language = "eng";
+      String languageBcp47 = null;
+      while (entry.hasRemaining()) {
+        int childId = Ebml.readId(entry);
+        long childSize = Ebml.readSize(entry);
+        if (childId < 0 || childSize < 0 || childSize > entry.remaining()) {
+          break;
+        }
+        ByteBuffer value = Ebml.slice(entry, (int) childSize);
+        switch (childId) {
+          case Ebml.TRACK_TYPE -> trackType = Ebml.readUnsigned(value);
+          case Ebml.CODEC_ID -> codecId = Ebml.readString(value);
+          case Ebml.LANGUAGE -> language = Ebml.readString(value);
+          case Ebml.LANGUAGE_BCP47 -> languageBcp47 =
+            Ebml.readString(value);
+          default -> {}
+        }
+      }
+
+      String type = switch ((int) trackType) {
+        case 1 -> VIDEO;
+        case 2 -> AUDIO;
+        case 0x11 -> SUBTITLE;
+        default -> "data";
+      };
+      String codec = MATROSKA_CODECS.getOrDefault(
+        codecId,
+        codecId.toLowerCase(Locale.ROOT)
+      );
+      result.add(
+        new Track(
+          result.size(),
+          type,
+          codec,
+          languageBcp47 != null ? languageBcp47 : language
+        )
+      );
+    }
+    return result;
+  }
+
+  private static List<Track> inspectMp4(FileChannel channel)
+    throws IOException {
+    long size = channel.size();
+    long position = 0;
+    for (int i = 0; i < MAX_TOP_LEVEL_ELEMENTS && position < size; i++) {
+      Box box = readBox(channel, position, size);
+      if (box == null) {
+        return null;
+      }
+      if (box.type().equals("moov")) {
+        List<Track> tracks = new ArrayList<>();
+        for (Box trak : children(channel, box)) {
+          if (trak.type().equals("trak")) {
+            tracks.add(parseTrak(channel, trak, tracks.size()));
+          }
+        }
+        return tracks;
+      }
+      position = box.end();
+    }
+    return null;
+  }
+
+  private static Track parseTrak(FileChannel channel, Box trak, int index)
+    throws IOException {
+    String handler = "";
+    String language = "und";
+    String format = "";
+
+    Box mdia = child(channel, trak, "mdia");
+    if (mdia != null) {
+      Box hdlr = child(channel, mdia, "hdlr");
+      if (hdlr != null) {
+        handler = fourCC(Ebml.read(channel, hdlr.dataStart() + 8, 4), 0);
+      }
+
+      Box mdhd = child(channel, mdia, "mdhd");
+      if (mdhd != null) {
+        ByteBuffer version = Ebml.read(channel, mdhd.dataStart(), 1);
+        long offset = version.get(0) == 1 ? 32 : 20;
+        ByteBuffer packed = Ebml.read(
+          channel,
+          mdhd.dataStart() + offset,
+          2
+        );
+        int code = packed.getShort(0) & 0x7FFF;
+        language =
+          new String(
+            new char[] {
+              (char) (((code >> 10) & 0x1F) + 0x60),
+              (char) (((code >> 5) & 0x1F) + 0x60),
+              (char) ((code & 0x1F) + 0x60),
+            }
+          );
+      }
+
+      Box minf = child(channel, mdia, "minf");
+      Box stbl = minf != null ? child(channel, minf, "stbl") : null;
+      Box stsd = stbl != null ? child(channel, stbl, "stsd") : null;
+      if (stsd != null) {
+        format = fourCC(Ebml.read(channel, stsd.dataStart() + 12, 4), 0);
+      }
+    }
+
+    String type = switch (handler) {
+      case "vide" -> VIDEO;
+      case "soun" -> AUDIO;
+      case "sbtl", "subt", "text", "clcp" -> SUBTITLE;
+      default -> "data";
+    };
+    return new Track(
+      index,
+      type,
+      MP4_CODECS.getOrDefault(format, format.trim().toLowerCase(Locale.ROOT)),
+      language
+    );
+  }
+
+  private static Box child(FileChannel channel, Box parent, String type)
+    throws IOException {
+    for (Box box : children(channel, parent)) {
+      if (box.type().equals(type)) {
+        return box;
+      }
+    }
+    return null;
+  }
+
+  private static List<Box> children(FileChannel channel, Box parent)
+    throws IOException {
+    List<Box> boxes = new ArrayList<>();
+    long position = parent.dataStart();
+    while (position + 8 <= parent.end() && boxes.size() < 1024) {
+      Box box = readBox(channel, position, parent.end());
+      if (box == null) {
+        break;
+      }
+      boxes.add(box);
+      position = box.end();
+    }
+    return boxes;
+  }
+
+  private static Box readBox(FileChannel channel, long position, long limit)
+    throws IOException {
+    ByteBuffer header = Ebml.read(channel, position, 16);
+    if (header.remaining() < 8) {
+      return null;
+    }
+
+    long size = header.getInt(0) & 0xFFFFFFFFL;
+    String type = fourCC(header, 4);
+    long headerSize = 8;
+    if (size == 1) {
+      if (header.remaining() < 16) {
+        return null;
+      }
+      size = header.getLong(8);
+      headerSize = 16;
+    } else if (size == 0) {
+      size = limit - position;
+    }
+    if (size < headerSize || position + size > limit) {
+      return null;
+    }
+    return new Box(type, position + headerSize, position + size);
+  }
+
+  private static String fourCC(ByteBuffer buffer, int offset) {
+    if (buffer.limit() < offset + 4) {
+      return "";
+    }
+    byte[] bytes = new byte[4];
+    buffer.get(offset, bytes);
+    return new String(bytes, StandardCharsets.ISO_8859_1);
+  }
+
+  private record Box(String type, long dataStart, long end) {}
+}
@@ -0,0 +1,168 @@
+package com.novastream.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+final class Ebml {
+
+  static final int HEADER = 0x1A45DFA3;
+  static final int SEGMENT = 0x18538067;
+  static final int SEEK_HEAD = 0x114D9B74;
+  static final int SEEK = 0x4DBB;
+  static final int SEEK_ID = 0x53AB;
+  static final int SEEK_POSITION = 0x53AC;
+  static final int INFO = 0x1549A966;
+  static final int TIMESTAMP_SCALE = 0x2AD7B1;
+  static final int TRACKS = 0x1654AE6B;
+  static final int TRACK_ENTRY = 0xAE;
+  static final int TRACK_NUMBER = 0xD7;
+  static final int TRACK_TYPE = 0x83;
+  static final int CODEC_ID = 0x86;
+  static final int LANGUAGE = 0x22B59C;
+  static final int LANGUAGE_BCP47 = 0x22B59D;
+  static final int CONTENT_ENCODINGS = 0x6D80;
+  static final int CONTENT_ENCODING = 0x6240;
+  static final int CONTENT_COMPRESSION = 0x5034;
+  static final int CONTENT_COMP_ALGO = 0x4254;
+  static final int CONTENT_COMP_SETTINGS = 0x4255;
+  static final int CONTENT_ENCRYPTION = 0x5035;
+  static final int CLUSTER = 0x1F43B675;
+  static final int CLUSTER_TIMESTAMP = 0xE7;
+  static final int SIMPLE_BLOCK = 0xA3;
+  static final int BLOCK_GROUP = 0xA0;
+  static final int BLOCK = 0xA1;
+  static final int BLOCK_DURATION = 0x9B;
+  static final int CUES = 0x1C53BB6B;
+  static final int TAGS = 0x1254C367;
+  static final int ATTACHMENTS = 0x1941A469;
+  static final int CHAPTERS = 0x1043A770;
+
+  static final int MAX_ELEMENT_SIZE = 4 * 1024 * 1024;
+
+  private Ebml() {}
+
+  record Element(int id, long dataStart, long size) {
+    long end() {
+      return dataStart + size;
+    }
+  }
+
+  static boolean isTopLevel(int id) {
+    return (
+      id == CLUSTER ||
+      id == CUES ||
+      id == TAGS ||
+      id == ATTACHMENTS ||
+      id == CHAPTERS ||
+      id == TRACKS ||
+      id == INFO ||
+      id == SEEK_HEAD
+    );
+  }
+
+  static Element readElementHeader(FileChannel channel, long position)
+    throws IOException {
+    return readElementHeader(read(channel, position, 12), position);
+  }
+
+  static Element readElementHeader(ByteBuffer header, long position) {
+    int start = header.position();
+    int id = readId(header);
+    if (id < 0) {
+      return null;
+    }
+    long size = readSize(header);
+    if (size == Long.MIN_VALUE) {
+      return null;
+    }
+    return new Element(id, position + header.position() - start, size);
+  }
+
+  static ByteBuffer readPayload(FileChannel channel, Element element)
+    throws IOException {
+    if (element.size() < 0 || element.size() > MAX_ELEMENT_SIZE) {
+      throw new IOException("Element too large to inspect");
+    }
+    ByteBuffer payload = read(
+      channel,
+      element.dataStart(),
+      (int) element.size()
+    );
+    if (payload.remaining() != element.size()) {
+      throw new IOException("Truncated element");
+    }
+    return payload;
+  }
+
+  static ByteBuffer read(FileChannel channel, long position, int length)
+    throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(length);
+    while (buffer.hasRemaining()) {
+      int bytesRead = channel.read(buffer, position + buffer.position());
+      if (bytesRead == -1) break;
+    }
+    buffer.flip();
+    return buffer;
+  }
+
+  static int readId(ByteBuffer buffer) {
+    if (!buffer.hasRemaining()) {
+      return -1;
+    }
+    int first = buffer.get() & 0xFF;
+    int length = Integer.numberOfLeadingZeros(first) - 23;
+    if (first == 0 || length > 4 || buffer.remaining() < length - 1) {
+      return -1;
+    }
+    int id = first;
+    for (int i = 1; i < length; i++) {
+      id = (id << 8) | (buffer.get() & 0xFF);
+    }
+    return id;
+  }
+
+  static long readSize(ByteBuffer buffer) {
+    if (!buffer.hasRemaining()) {
+      return Long.MIN_VALUE;
+    }
+    int first = buffer.get() & 0xFF;
+    int length = Integer.numberOfLeadingZeros(first) - 23;
+    if (first == 0 || buffer.remaining() < length - 1) {
+      return Long.MIN_VALUE;
+    }
+    long value = first & (0xFF >> length);
+    boolean unknown = value == (0xFF >> length);
+    for (int i = 1; i < length; i++) {
+      int next = buffer.get() & 0xFF;
+      unknown &= next == 0xFF;
+      value = (value << 8) | next;
+    }
+    return unknown ? -1 : value;
+  }
+
+  static long readUnsigned(ByteBuffer buffer) {
+    long value = 0;
+    while (buffer.hasRemaining()) {
+      value = (value << 8) | (buffer.get() & 0xFF);
+    }
+    return value;
+  }
+
+  static String readString(ByteBuffer buffer) {
+    byte[] bytes = new byte[buffer.remaining()];
+    buffer.get(bytes);
+    int length = bytes.length;
+    while (length > 0 && bytes[length - 1] == 0) {
+      length--;
+    }
+    return new String(bytes, 0, length, StandardCharsets.UTF_8);
+  }
+
+  static ByteBuffer slice(ByteBuffer buffer, int length) {
+    ByteBuffer slice = buffer.slice(buffer.position(), length);
+    buffer.position(buffer.position() + length);
+    return slice;
+  }
+}
@@ -0,0 +1,265 @@
+package com.novastream.util;
+
+import com.novastream.config.MediaConfig;
+import com.novastream.service.ContentTypeService;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class FileChannelCache {
+
+  private static final Logger logger = LoggerFactory.getLogger(
+    FileChannelCache.class
+  );
+
+  @Autowired
+  private MediaConfig mediaConfig;
+
+  @Autowired
+  private ContentTypeService contentTypeService;
+
+  private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+  public Handle acquire(String id, Path path) throws IOException {
+    while (true) {
+      Entry entry = entries.get(id);
+
+      if (entry != null && !isCurrent(entry, path)) {
+        retire(id, entry);
+        entry = null;
+      }
+
+      if (entry == null) {
+        synchronized (this) {
+          entry = entries.get(id);
+          if (entry == null) {
+            evictIfFull();
+            entry = open(path);
+            entries.put(id, entry);
+          }
+        }
+      }
+
+      if (entry.retain()) {
+        return new Handle(entry);
+      }
+    }
+  }
+
+  public int size() {
+    return entries.size();
+  }
+
+  @Scheduled(fixedDelay = 30000)
+  public void evictIdle() {
+    long cutoff =
+      System.currentTimeMillis() - mediaConfig.getChannelIdleTimeoutMs();
+    entries.forEach((id, entry) -> {
+      if (entry.isIdleSince(cutoff)) {
+        retire(id, entry);
+      }
+    });
+  }
+
+  @PreDestroy
+  public void closeAll() {
+    entries.forEach(this::retire);
+  }
+
+  private boolean isCurrent(Entry entry, Path path) throws IOException {
+    if (!entry.path.equals(path)) {
+      return false;
+    }
+
+    long now = System.currentTimeMillis();
+    if (now - entry.lastValidated < mediaConfig.getChannelRevalidateIntervalMs()) {
+      return true;
+    }
+
+    BasicFileAttributes attributes = Files.readAttributes(
+      path,
+      BasicFileAttributes.class
+    );
+    if (
+      attributes.lastModifiedTime().toMillis() != entry.lastModified ||
+      attributes.size() != entry.size
+    ) {
+      logger.debug("File changed on disk, reopening: " + path);
+      return false;
+    }
+
+    entry.lastValidated = now;
+    return true;
+  }
+
+  private Entry open(Path path) throws IOException {
+    BasicFileAttributes attributes = Files.readAttributes(
+      path,
+      BasicFileAttributes.class
+    );
+    long lastModified = attributes.lastModifiedTime().toMillis();
+    String contentType = contentTypeService.getContentType(path, lastModified);
+    FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+
+    return new Entry(
+      path,
+      channel,
+      attributes.size(),
+      lastModified,
+      contentType
+    );
+  }
+
+  private void evictIfFull() {
+    if (entries.size() < mediaConfig.getMaxOpenChannels()) {
+      return;
+    }
+
+    String oldestId = null;
+    Entry oldest = null;
+    for (Map.Entry<String, Entry> candidate : entries.entrySet()) {
+      Entry entry = candidate.getValue();
+      if (
+        entry.isIdleSince(Long.MAX_VALUE) &&
+        (oldest == null || entry.lastAccess < oldest.lastAccess)
+      ) {
+        oldestId = candidate.getKey();
+        oldest = entry;
+      }
+    }
+
+    if (oldest != null) {
+      retire(oldestId, oldest);
+    }
+  }
+
+  private void retire(String id, Entry entry) {
+    entries.remove(id, entry);
+    entry.retire();
+  }
+
+  private static class Entry {
+
+    private final Path path;
+    private final FileChannel channel;
+    private final long size;
+    private final long lastModified;
+    private final String contentType;
+
+    private int refCount = 0;
+    private boolean retired = false;
+    private volatile long lastAccess = System.currentTimeMillis();
+    private volatile long lastValidated = System.currentTimeMillis();
+
+    Entry(
+      Path path,
+      FileChannel channel,
+      long size,
+      long lastModified,
+      String contentType
+    ) {
+      this.path = path;
+      this.channel = channel;
+      this.size = size;
+      this.lastModified = lastModified;
+      this.contentType = contentType;
+    }
+
+    synchronized boolean retain() {
+      if (retired) {
+        return false;
+      }
+      refCount++;
+      lastAccess = System.currentTimeMillis();
+      return true;
+    }
+
+    synchronized void release() {
+      refCount--;
+      lastAccess = System.currentTimeMillis();
+      if (refCount == 0 && retired) {
+        close();
+      }
+    }
+
+    synchronized boolean isIdleSince(long cutoff) {
+      return refCount == 0 && lastAccess < cutoff;
+    }
+
+    synchronized void retire() {
+      if (retired) {
+        return;
+      }
+      retired = true;
+      if (refCount == 0) {
+        close();
+      }
+    }
+
+    private void close() {
+      try {
+        channel.close();
+      } catch (IOException e) {
+        logger.debug("Failed to close channel for " + path + ": " + e);
+      }
+    }
+  }
+
+  public static class Handle implements AutoCloseable {
+
+    private final Entry entry;
+    private final AtomicBoolean released = new AtomicBoolean(false);
+
+    private Handle(Entry entry) {
+      this.entry = entry;
+    }
+
+    public Path getPath() {
+      return entry.path;
+    }
+
+    public FileChannel getChannel() {
+      return entry.channel;
+    }
+
+    public long getSize() {
+      return entry.size;
+    }
+
+    public long getLastModified() {
+      return entry.lastModified;
+    }
+
+    public String getContentType() {
+      return entry.contentType;
+    }
+
+    public String getETag() {
+      return HttpValidators.strongETag(entry.size, entry.lastModified);
+    }
+
+    public Handle retain() {
+      return entry.retain() ? new Handle(entry) : null;
+    }
+
+    @Override
+    public void close() {
+      if (released.compareAndSet(false, true)) {
+        entry.release();
+      }
+    }
+  }
+}
@@ -0,0 +1,54 @@
+package com.novastream.util;
+
+import com.novastream.service.PlaybackSession;
+import java.nio.file.Path;
+
+public class FileRegion implements StreamRegion {
+
+  private final FileChannelCache.Handle handle;
+  private final long position;
+  private final long count;
+  private final PlaybackSession session;
+
+  public FileRegion(
+    FileChannelCache.Handle handle,
+    long position,
+    long count,
+    PlaybackSession session
+  ) {
+    this.handle = handle;
+    this.position = position;
+    this.count = count;
+    this.session = session;
+  }
+
+  public FileChannelCache.Handle getHandle() {
+    return handle;
+  }
+
+  public Path getPath() {
+    return handle.getPath();
+  }
+
+  public long getPosition() {
+    return position;
+  }
+
+  public long getCount() {
+    return count;
+  }
+
+  public PlaybackSession getSession() {
+    return session;
+  }
+
+  @Override
+  public long contentLength() {
+    return count;
+  }
+
+  @Override
+  public void release() {
+    handle.close();
+  }
+}
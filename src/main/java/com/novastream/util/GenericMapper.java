@@ -1,5 +1,10 @@
 package com.novastream.util;
 
+import com.novastream.dto.MediaDto;
+import com.novastream.model.Media;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 import org.modelmapper.Conditions;
 import org.modelmapper.ModelMapper;
 import org.springframework.stereotype.Component;
@@ -10,24 +15,65 @@ public class GenericMapper {
   private final ModelMapper modelMapper;
   private final ModelMapper nonNullMapper;
 
+  private final Map<MappingKey, Function<Object, Object>> mappers = new ConcurrentHashMap<>();
+
   public GenericMapper() {
     this.modelMapper = new ModelMapper();
 
     this.nonNullMapper = new ModelMapper();
     this.nonNullMapper.getConfiguration()
       .setPropertyCondition(Conditions.isNotNull());
+
+    register(
+      Media.class,
+      MediaDto.class,
+      media ->
+        new MediaDto(
+          media.getId(),
+          media.getName(),
+          media.getIsDirectory(),
+          media.getSize(),
+          media.getFilesCount(),
+          media.getSubtitleLanguages()
+        )
+    );
+  }
+
+  public <S, T> void register(
+    Class<S> sourceClass,
+    Class<T> targetClass,
+    Function<S, T> mapper
+  ) {
+    mappers.put(
+      new MappingKey(sourceClass, targetClass),
+      source -> mapper.apply(sourceClass.cast(source))
+    );
   }
 
   public <D, E> E toEntity(D dto, Class<E> entityClass) {
-    return modelMapper.map(dto, entityClass);
+    return map(dto, entityClass);
   }
 
   public <E, D> D toDto(E entity, Class<D> dtoClass) {
-    return modelMapper.map(entity, dtoClass);
+    return map(entity, dtoClass);
   }
 
   public <D, E> E mapTo(D sourceDto, E targetEntity) {
     nonNullMapper.map(sourceDto, targetEntity);
     return targetEntity;
   }
+
+  private <S, T> T map(S source, Class<T> targetClass) {
+    if (source != null) {
+      Function<Object, Object> mapper = mappers.get(
+        new MappingKey(source.getClass(), targetClass)
+      );
+      if (mapper != null) {
+        return targetClass.cast(mapper.apply(source));
+      }
+    }
+    return modelMapper.map(source, targetClass);
+  }
+
+  private record MappingKey(Class<?> sourceClass, Class<?> targetClass) {}
 }
@@ -0,0 +1,63 @@
+package com.novastream.util;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+
+public class HttpValidators {
+
+  private HttpValidators() {}
+
+  public static String strongETag(long size, long lastModified) {
+    return (
+      "\"" +
+      Long.toHexString(size) +
+      "-" +
+      Long.toHexString(lastModified) +
+      "\""
+    );
+  }
+
+  public static String weakETag(byte[] content) {
+    try {
+      byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+      return "W/\"" + HexFormat.of().formatHex(digest) + "\"";
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+
+  public static CacheControl cacheControl(long maxAgeSeconds) {
+    return maxAgeSeconds > 0
+      ? CacheControl.maxAge(maxAgeSeconds, TimeUnit.SECONDS).cachePublic()
+      : CacheControl.noCache();
+  }
+
+  public static boolean isNotModified(
+    HttpHeaders requestHeaders,
+    String eTag,
+    long lastModified
+  ) {
+    List<String> ifNoneMatch = requestHeaders.getIfNoneMatch();
+    if (!ifNoneMatch.isEmpty()) {
+      String opaqueTag = stripWeak(eTag);
+      for (String candidate : ifNoneMatch) {
+        if (candidate.equals("*") || stripWeak(candidate).equals(opaqueTag)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    long ifModifiedSince = requestHeaders.getIfModifiedSince();
+    return ifModifiedSince >= 0 && lastModified / 1000 <= ifModifiedSince / 1000;
+  }
+
+  private static String stripWeak(String eTag) {
+    return eTag.startsWith("W/") ? eTag.substring(2) : eTag;
+  }
+}
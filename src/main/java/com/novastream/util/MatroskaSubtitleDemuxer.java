@@ -0,0 +1,525 @@
+package com.novastream.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public final class MatroskaSubtitleDemuxer {
+
+  private static final Logger logger = LoggerFactory.getLogger(
+    MatroskaSubtitleDemuxer.class
+  );
+
+  private static final Set<String> TEXT_CODECS = Set.of(
+    "S_TEXT/UTF8",
+    "S_TEXT/ASCII"
+  );
+
+  private static final Set<String> ASS_CODECS = Set.of(
+    "S_TEXT/ASS",
+    "S_TEXT/SSA",
+    "S_ASS",
+    "S_SSA"
+  );
+
+  private static final Pattern ASS_OVERRIDE = Pattern.compile("\\{[^}]*\\}");
+
+  private static final int WINDOW_SIZE = 256 * 1024;
+  private static final long DEFAULT_TIMESTAMP_SCALE = 1_000_000;
+  private static final long DEFAULT_DURATION_MS = 2000;
+
+  private static final int COMPRESSION_NONE = -1;
+  private static final int COMPRESSION_ZLIB = 0;
+  private static final int COMPRESSION_HEADER_STRIPPING = 3;
+
+  private MatroskaSubtitleDemuxer() {}
+
+  public static boolean extract(Path source, Map<Integer, Path> outputs) {
+    if (outputs.isEmpty()) {
+      return true;
+    }
+
+    try (
+      FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)
+    ) {
+      Demux demux = demux(channel, outputs.keySet());
+      if (demux == null) {
+        return false;
+      }
+      for (SubtitleTrack track : demux.tracks().values()) {
+        writeSrt(track, demux.timestampScale(), outputs.get(track.index));
+      }
+      return true;
+    } catch (IOException | RuntimeException e) {
+      logger.debug(
+        "In-process subtitle demux failed for " +
+        source.getFileName() +
+        ": " +
+        e.getMessage()
+      );
+      return false;
+    }
+  }
+
+  private static Demux demux(FileChannel channel, Set<Integer> indexes)
+    throws IOException {
+    Window window = new Window(channel);
+    long size = channel.size();
+
+    Ebml.Element ebml = window.element(0);
+    if (ebml == null || ebml.id() != Ebml.HEADER || ebml.size() < 0) {
+      return null;
+    }
+    Ebml.Element segment = window.element(ebml.end());
+    if (segment == null || segment.id() != Ebml.SEGMENT) {
+      return null;
+    }
+    long segmentEnd = segment.size() < 0
+      ? size
+      : Math.min(size, segment.end());
+
+    long timestampScale = DEFAULT_TIMESTAMP_SCALE;
+    Map<Long, SubtitleTrack> tracks = null;
+    long position = segment.dataStart();
+    while (position < segmentEnd) {
+      Ebml.Element element = window.element(position);
+      if (element == null) {
+        break;
+      }
+
+      if (element.id() == Ebml.CLUSTER) {
+        if (tracks == null) {
+          return null;
+        }
+        position = readCluster(window, element, segmentEnd, tracks);
+        continue;
+      }
+      if (element.size() < 0) {
+        return null;
+      }
+      if (element.id() == Ebml.INFO) {
+        timestampScale =
+          readTimestampScale(Ebml.readPayload(channel, element));
+      } else if (element.id() == Ebml.TRACKS) {
+        tracks = readTracks(Ebml.readPayload(channel, element), indexes);
+        if (tracks == null) {
+          return null;
+        }
+      }
+      position = element.end();
+    }
+
+    if (tracks == null || tracks.size() != indexes.size()) {
+      return null;
+    }
+    return new Demux(timestampScale, tracks);
+  }
+
+  private static long readTimestampScale(ByteBuffer info) {
+    while (info.hasRemaining()) {
+      int id = Ebml.readId(info);
+      long size = Ebml.readSize(info);
+      if (id < 0 || size < 0 || size > info.remaining()) {
+        break;
+      }
+      ByteBuffer value = Ebml.slice(info, (int) size);
+      if (id == Ebml.TIMESTAMP_SCALE) {
+        long scale = Ebml.readUnsigned(value);
+        return scale > 0 ? scale : DEFAULT_TIMESTAMP_SCALE;
+      }
+    }
+    return DEFAULT_TIMESTAMP_SCALE;
+  }
+
+  private static Map<Long, SubtitleTrack> readTracks(
+    ByteBuffer tracks,
+    Set<Integer> indexes
+  ) {
+    Map<Long, SubtitleTrack> result = new HashMap<>();
+    int index = 0;
+    while (tracks.hasRemaining()) {
+      int id = Ebml.readId(tracks);
+      long size = Ebml.readSize(tracks);
+      if (id < 0 || size < 0 || size > tracks.remaining()) {
+        return null;
+      }
+      ByteBuffer entry = Ebml.slice(tracks, (int) size);
+      if (id != Ebml.TRACK_ENTRY) {
+        continue;
+      }
+      int trackIndex = index++;
+      if (!indexes.contains(trackIndex)) {
+        continue;
+      }
+
+      SubtitleTrack track = new SubtitleTrack(trackIndex);
+      long number = -1;
+      String codecId = "";
+      while (entry.hasRemaining()) {
+        int childId = Ebml.readId(entry);
+        long childSize = Ebml.readSize(entry);
+        if (childId < 0 || childSize < 0 || childSize > entry.remaining()) {
+          return null;
+        }
+        ByteBuffer value = Ebml.slice(entry, (int) childSize);
+        if (childId == Ebml.TRACK_NUMBER) {
+          number = Ebml.readUnsigned(value);
+        } else if (childId == Ebml.CODEC_ID) {
+          codecId = Ebml.readString(value);
+        } else if (
+          childId == Ebml.CONTENT_ENCODINGS && !readEncodings(value, track)
+        ) {
+          return null;
+        }
+      }
+
+      track.ass = ASS_CODECS.contains(codecId);
+      if (number < 0 || !(track.ass || TEXT_CODECS.contains(codecId))) {
+        return null;
+      }
+      result.put(number, track);
+    }
+    return result;
+  }
+
+  private static boolean readEncodings(
+    ByteBuffer encodings,
+    SubtitleTrack track
+  ) {
+    int count = 0;
+    while (encodings.hasRemaining()) {
+      int id = Ebml.readId(encodings);
+      long size = Ebml.readSize(encodings);
+      if (id < 0 || size < 0 || size > encodings.remaining()) {
+        return false;
+      }
+      ByteBuffer encoding = Ebml.slice(encodings, (int) size);
+      if (id != Ebml.CONTENT_ENCODING || ++count > 1) {
+        return false;
+      }
+
+      while (encoding.hasRemaining()) {
+        int childId = Ebml.readId(encoding);
+        long childSize = Ebml.readSize(encoding);
+        if (
+          childId < 0 || childSize < 0 || childSize > encoding.remaining()
+        ) {
+          return false;
+        }
+        ByteBuffer value = Ebml.slice(encoding, (int) childSize);
+        if (childId == Ebml.CONTENT_ENCRYPTION) {
+          return false;
+        }
+        if (childId == Ebml.CONTENT_COMPRESSION) {
+          track.compression = COMPRESSION_ZLIB;
+          while (value.hasRemaining()) {
+            int settingId = Ebml.readId(value);
+            long settingSize = Ebml.readSize(value);
+            if (
+              settingId < 0 ||
+              settingSize < 0 ||
+              settingSize > value.remaining()
+            ) {
+              return false;
+            }
+            ByteBuffer setting = Ebml.slice(value, (int) settingSize);
+            if (settingId == Ebml.CONTENT_COMP_ALGO) {
+              track.compression = (int) Ebml.readUnsigned(setting);
+            } else if (settingId == Ebml.CONTENT_COMP_SETTINGS) {
+              track.compressionSettings = new byte[setting.remaining()];
+              setting.get(track.compressionSettings);
+            }
+          }
+        }
+      }
+    }
+    return (
+      track.compression == COMPRESSION_NONE ||
+      track.compression == COMPRESSION_ZLIB ||
+      track.compression == COMPRESSION_HEADER_STRIPPING
+    );
+  }
+
+  private static long readCluster(
+    Window window,
+    Ebml.Element cluster,
+    long segmentEnd,
+    Map<Long, SubtitleTrack> tracks
+  ) throws IOException {
+    boolean unknownSize = cluster.size() < 0;
+    long end = unknownSize
+      ? segmentEnd
+      : Math.min(segmentEnd, cluster.end());
+    long clusterTimestamp = 0;
+    long position = cluster.dataStart();
+    while (position < end) {
+      Ebml.Element child = window.element(position);
+      if (child == null) {
+        return segmentEnd;
+      }
+      if (unknownSize && Ebml.isTopLevel(child.id())) {
+        return position;
+      }
+      if (child.size() < 0) {
+        throw new IOException("Unknown-size element inside cluster");
+      }
+
+      if (child.id() == Ebml.CLUSTER_TIMESTAMP) {
+        clusterTimestamp =
+          Ebml.readUnsigned(
+            window.read(child.dataStart(), (int) child.size())
+          );
+      } else if (child.id() == Ebml.SIMPLE_BLOCK) {
+        readBlock(window, child, clusterTimestamp, -1, tracks);
+      } else if (child.id() == Ebml.BLOCK_GROUP) {
+        readBlockGroup(window, child, clusterTimestamp, tracks);
+      }
+      position = child.end();
+    }
+    return end;
+  }
+
+  private static void readBlockGroup(
+    Window window,
+    Ebml.Element group,
+    long clusterTimestamp,
+    Map<Long, SubtitleTrack> tracks
+  ) throws IOException {
+    Ebml.Element block = null;
+    long duration = -1;
+    long position = group.dataStart();
+    while (position < group.end()) {
+      Ebml.Element child = window.element(position);
+      if (child == null || child.size() < 0) {
+        throw new IOException("Malformed block group");
+      }
+      if (child.id() == Ebml.BLOCK) {
+        block = child;
+      } else if (child.id() == Ebml.BLOCK_DURATION) {
+        duration =
+          Ebml.readUnsigned(
+            window.read(child.dataStart(), (int) child.size())
+          );
+      }
+      position = child.end();
+    }
+    if (block != null) {
+      readBlock(window, block, clusterTimestamp, duration, tracks);
+    }
+  }
+
+  private static void readBlock(
+    Window window,
+    Ebml.Element block,
+    long clusterTimestamp,
+    long duration,
+    Map<Long, SubtitleTrack> tracks
+  ) throws IOException {
+    ByteBuffer header = window.read(
+      block.dataStart(),
+      (int) Math.min(block.size(), 11)
+    );
+    long number = Ebml.readSize(header);
+    SubtitleTrack track = tracks.get(number);
+    if (track == null) {
+      return;
+    }
+    if (header.remaining() < 3) {
+      throw new IOException("Truncated block header");
+    }
+
+    short relativeTimestamp = header.getShort();
+    int flags = header.get() & 0xFF;
+    if ((flags & 0x06) != 0) {
+      throw new IOException("Laced subtitle blocks are not supported");
+    }
+
+    long payloadSize = block.size() - header.position();
+    if (payloadSize < 0 || payloadSize > Ebml.MAX_ELEMENT_SIZE) {
+      throw new IOException("Invalid subtitle block size");
+    }
+    ByteBuffer payload = Ebml.read(
+      window.channel,
+      block.dataStart() + header.position(),
+      (int) payloadSize
+    );
+    byte[] data = new byte[payload.remaining()];
+    payload.get(data);
+
+    String text = new String(decode(track, data), StandardCharsets.UTF_8);
+    track.cues.add(
+      new Cue(clusterTimestamp + relativeTimestamp, duration, text)
+    );
+  }
+
+  private static byte[] decode(SubtitleTrack track, byte[] data)
+    throws IOException {
+    if (track.compression == COMPRESSION_HEADER_STRIPPING) {
+      byte[] prefix = track.compressionSettings;
+      byte[] restored = new byte[prefix.length + data.length];
+      System.arraycopy(prefix, 0, restored, 0, prefix.length);
+      System.arraycopy(data, 0, restored, prefix.length, data.length);
+      return restored;
+    }
+    if (track.compression != COMPRESSION_ZLIB) {
+      return data;
+    }
+
+    Inflater inflater = new Inflater();
+    try {
+      inflater.setInput(data);
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      byte[] buffer = new byte[4096];
+      while (!inflater.finished()) {
+        int inflated = inflater.inflate(buffer);
+        if (
+          inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())
+        ) {
+          throw new IOException("Truncated compressed subtitle block");
+        }
+        out.write(buffer, 0, inflated);
+      }
+      return out.toByteArray();
+    } catch (DataFormatException e) {
+      throw new IOException("Corrupt compressed subtitle block", e);
+    } finally {
+      inflater.end();
+    }
+  }
+
+  private static void writeSrt(
+    SubtitleTrack track,
+    long timestampScale,
+    Path output
+  ) throws IOException {
+    List<Cue> cues = new ArrayList<>(track.cues);
+    cues.sort(Comparator.comparingLong(Cue::timestamp));
+
+    try (Writer writer = Files.newBufferedWriter(output)) {
+      int counter = 1;
+      for (int i = 0; i < cues.size(); i++) {
+        Cue cue = cues.get(i);
+        String text = track.ass ? assToText(cue.text()) : cue.text().strip();
+        if (text.isEmpty()) {
+          continue;
+        }
+
+        long start = toMillis(cue.timestamp(), timestampScale);
+        long end;
+        if (cue.duration() >= 0) {
+          end = toMillis(cue.timestamp() + cue.duration(), timestampScale);
+        } else if (i + 1 < cues.size()) {
+          end = toMillis(cues.get(i + 1).timestamp(), timestampScale);
+        } else {
+          end = start + DEFAULT_DURATION_MS;
+        }
+
+        writer
+          .append(String.valueOf(counter++))
+          .append('\n')
+          .append(formatTimestamp(start))
+          .append(" --> ")
+          .append(formatTimestamp(Math.max(start, end)))
+          .append('\n')
+          .append(text.replace("\r\n", "\n"))
+          .append("\n\n");
+      }
+    }
+  }
+
+  private static String assToText(String event) {
+    String[] fields = event.split(",", 9);
+    String text = fields.length == 9 ? fields[8] : event;
+    return ASS_OVERRIDE
+      .matcher(text)
+      .replaceAll("")
+      .replace("\\N", "\n")
+      .replace("\\n", "\n")
+      .replace("\\h", " ")
+      .strip();
+  }
+
+  private static long toMillis(long timestamp, long timestampScale) {
+    return Math.max(0, timestamp) * timestampScale / 1_000_000;
+  }
+
+  private static String formatTimestamp(long millis) {
+    return String.format(
+      "%02d:%02d:%02d,%03d",
+      millis / 3_600_000,
+      (millis / 60_000) % 60,
+      (millis / 1000) % 60,
+      millis % 1000
+    );
+  }
+
+  private record Demux(
+    long timestampScale,
+    Map<Long, SubtitleTrack> tracks
+  ) {}
+
+  private record Cue(long timestamp, long duration, String text) {}
+
+  private static final class SubtitleTrack {
+
+    private final int index;
+    private final List<Cue> cues = new ArrayList<>();
+    private boolean ass = false;
+    private int compression = COMPRESSION_NONE;
+    private byte[] compressionSettings = new byte[0];
+
+    private SubtitleTrack(int index) {
+      this.index = index;
+    }
+  }
+
+  private static final class Window {
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(WINDOW_SIZE);
+    private long start = 0;
+
+    private Window(FileChannel channel) {
+      this.channel = channel;
+      buffer.limit(0);
+    }
+
+    private ByteBuffer read(long position, int length) throws IOException {
+      if (length > WINDOW_SIZE) {
+        return Ebml.read(channel, position, length);
+      }
+      if (position < start || position + length > start + buffer.limit()) {
+        buffer.clear();
+        start = position;
+        while (buffer.hasRemaining()) {
+          int bytesRead = channel.read(buffer, start + buffer.position());
+          if (bytesRead == -1) break;
+        }
+        buffer.flip();
+      }
+      int offset = (int) (position - start);
+      return buffer.slice(offset, Math.min(length, buffer.limit() - offset));
+    }
+
+    private Ebml.Element element(long position) throws IOException {
+      return Ebml.readElementHeader(read(position, 12), position);
+    }
+  }
+}
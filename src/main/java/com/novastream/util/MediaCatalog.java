@@ -0,0 +1,250 @@
+package com.novastream.util;
+
+import com.novastream.config.MediaConfig;
+import com.novastream.model.Media;
+import com.novastream.model.Subtitle;
+import jakarta.annotation.PreDestroy;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class MediaCatalog {
+
+  private static final Logger logger = LoggerFactory.getLogger(
+    MediaCatalog.class
+  );
+
+  private static final int MAGIC = 0x4E534331;
+  private static final int VERSION = 3;
+
+  @Autowired
+  private MediaConfig mediaConfig;
+
+  private final Map<String, Directory> directories = new ConcurrentHashMap<>();
+
+  private volatile boolean loaded = false;
+  private volatile boolean dirty = false;
+
+  public Directory get(String path) {
+    ensureLoaded();
+    return directories.get(path);
+  }
+
+  public void put(String path, Directory directory) {
+    ensureLoaded();
+    directories.put(path, directory);
+    dirty = true;
+  }
+
+  public void remove(String path) {
+    ensureLoaded();
+    if (directories.remove(path) != null) {
+      dirty = true;
+    }
+  }
+
+  public void removeTree(String path) {
+    ensureLoaded();
+    String prefix = path.endsWith(File.separator) ? path : path + File.separator;
+    if (
+      directories
+        .keySet()
+        .removeIf(key -> key.equals(path) || key.startsWith(prefix))
+    ) {
+      dirty = true;
+    }
+  }
+
+  public List<String> paths() {
+    ensureLoaded();
+    return List.copyOf(directories.keySet());
+  }
+
+  public int size() {
+    return directories.size();
+  }
+
+  @Scheduled(fixedDelay = 30000)
+  public void flush() {
+    if (!dirty) {
+      return;
+    }
+    dirty = false;
+
+    Path file = getCatalogFile();
+    Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+    try {
+      Files.createDirectories(file.getParent());
+      try (
+        DataOutputStream out = new DataOutputStream(
+          new BufferedOutputStream(Files.newOutputStream(temp))
+        )
+      ) {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeUTF(getBasePath());
+        Map<String, Directory> snapshot = Map.copyOf(directories);
+        out.writeInt(snapshot.size());
+        for (Map.Entry<String, Directory> entry : snapshot.entrySet()) {
+          out.writeUTF(entry.getKey());
+          writeDirectory(out, entry.getValue());
+        }
+      }
+      Files.move(
+        temp,
+        file,
+        StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE
+      );
+    } catch (IOException e) {
+      dirty = true;
+      logger.debug("Failed to save media catalog: " + e.getMessage());
+    }
+  }
+
+  @PreDestroy
+  public void close() {
+    flush();
+  }
+
+  private synchronized void ensureLoaded() {
+    if (loaded) {
+      return;
+    }
+    loaded = true;
+
+    Path file = getCatalogFile();
+    try (
+      DataInputStream in = new DataInputStream(
+        new BufferedInputStream(Files.newInputStream(file))
+      )
+    ) {
+      if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+        throw new IOException("Unsupported catalog format");
+      }
+      if (!in.readUTF().equals(getBasePath())) {
+        throw new IOException("Catalog was built for another media folder");
+      }
+      int count = in.readInt();
+      for (int i = 0; i < count; i++) {
+        String path = in.readUTF();
+        directories.put(path, readDirectory(in));
+      }
+    } catch (NoSuchFileException e) {
+      logger.debug("No media catalog found at " + file);
+    } catch (IOException | RuntimeException e) {
+      logger.debug("Discarding unreadable media catalog: " + e.getMessage());
+      directories.clear();
+      dirty = true;
+    }
+  }
+
+  private String getBasePath() {
+    String basePath = mediaConfig.getBasePath();
+    return basePath != null ? basePath : "";
+  }
+
+  private Path getCatalogFile() {
+    return Paths.get(mediaConfig.getDataPath(), "catalog.bin");
+  }
+
+  private static void writeDirectory(DataOutputStream out, Directory directory)
+    throws IOException {
+    out.writeLong(directory.lastModified());
+    out.writeInt(directory.entries().size());
+    for (Media media : directory.entries()) {
+      out.writeUTF(media.getId());
+      out.writeUTF(media.getName());
+      out.writeUTF(media.getPath());
+      out.writeBoolean(media.getIsDirectory());
+      out.writeLong(media.getSize() != null ? media.getSize() : -1);
+      out.writeLong(media.getFilesCount() != null ? media.getFilesCount() : -1);
+      out.writeLong(
+        media.getLastModified() != null ? media.getLastModified() : -1
+      );
+
+      List<Subtitle> subtitles = media.getSubtitleLanguages();
+      out.writeInt(subtitles != null ? subtitles.size() : -1);
+      if (subtitles != null) {
+        for (Subtitle subtitle : subtitles) {
+          writeOptionalUTF(out, subtitle.getLanguage());
+          writeOptionalUTF(out, subtitle.getCode());
+        }
+      }
+    }
+  }
+
+  private static Directory readDirectory(DataInputStream in)
+    throws IOException {
+    long lastModified = in.readLong();
+    int count = in.readInt();
+    List<Media> entries = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      String id = in.readUTF();
+      String name = in.readUTF();
+      String path = in.readUTF();
+      boolean isDirectory = in.readBoolean();
+      long size = in.readLong();
+      long filesCount = in.readLong();
+      long entryLastModified = in.readLong();
+
+      int subtitleCount = in.readInt();
+      List<Subtitle> subtitles = null;
+      if (subtitleCount >= 0) {
+        subtitles = new ArrayList<>(subtitleCount);
+        for (int j = 0; j < subtitleCount; j++) {
+          subtitles.add(
+            new Subtitle(readOptionalUTF(in), readOptionalUTF(in))
+          );
+        }
+      }
+
+      entries.add(
+        new Media(
+          id,
+          name,
+          path,
+          isDirectory,
+          size >= 0 ? size : null,
+          filesCount >= 0 ? filesCount : null,
+          subtitles != null ? List.copyOf(subtitles) : null,
+          entryLastModified >= 0 ? entryLastModified : null
+        )
+      );
+    }
+    return new Directory(lastModified, List.copyOf(entries));
+  }
+
+  private static void writeOptionalUTF(DataOutputStream out, String value)
+    throws IOException {
+    out.writeBoolean(value != null);
+    if (value != null) {
+      out.writeUTF(value);
+    }
+  }
+
+  private static String readOptionalUTF(DataInputStream in)
+    throws IOException {
+    return in.readBoolean() ? in.readUTF() : null;
+  }
+
+  public record Directory(long lastModified, List<Media> entries) {}
+}
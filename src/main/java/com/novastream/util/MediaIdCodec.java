@@ -0,0 +1,91 @@
+package com.novastream.util;
+
+import com.novastream.config.MediaConfig;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Base64;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+@Component
+public class MediaIdCodec {
+
+  private static final String RELATIVE_ID_PREFIX = "n";
+
+  @Autowired
+  private MediaConfig mediaConfig;
+
+  public String idFor(String path) {
+    Path basePath = getBasePath();
+    if (basePath == null) {
+      return null;
+    }
+
+    Path absolutePath = Paths.get(path).toAbsolutePath().normalize();
+    if (!absolutePath.startsWith(basePath)) {
+      return null;
+    }
+
+    String relativePath = basePath
+      .relativize(absolutePath)
+      .toString()
+      .replace(File.separatorChar, '/');
+    return (
+      RELATIVE_ID_PREFIX +
+      Base64
+        .getUrlEncoder()
+        .withoutPadding()
+        .encodeToString(relativePath.getBytes(StandardCharsets.UTF_8))
+    );
+  }
+
+  public String getPath(String id) {
+    if (id == null || !id.startsWith(RELATIVE_ID_PREFIX)) {
+      return null;
+    }
+
+    Path basePath = getBasePath();
+    if (basePath == null) {
+      return null;
+    }
+
+    try {
+      String relativePath = new String(
+        Base64
+          .getUrlDecoder()
+          .decode(id.substring(RELATIVE_ID_PREFIX.length())),
+        StandardCharsets.UTF_8
+      );
+      Path resolved = basePath.resolve(relativePath).normalize();
+      if (!resolved.startsWith(basePath)) {
+        return null;
+      }
+
+      Path current = basePath;
+      for (Path name : basePath.relativize(resolved)) {
+        current = current.resolve(name);
+        if (!isListable(current.toFile())) {
+          return null;
+        }
+      }
+      return resolved.toString();
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  private static boolean isListable(File file) {
+    return !file.getName().equalsIgnoreCase("subs") && !file.isHidden();
+  }
+
+  private Path getBasePath() {
+    String basePath = mediaConfig.getBasePath();
+    if (!StringUtils.hasText(basePath)) {
+      return null;
+    }
+    return Paths.get(basePath).toAbsolutePath().normalize();
+  }
+}
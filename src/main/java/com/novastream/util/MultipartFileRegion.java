@@ -0,0 +1,87 @@
+package com.novastream.util;
+
+import com.novastream.service.PlaybackSession;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+public class MultipartFileRegion implements StreamRegion {
+
+  private final FileChannelCache.Handle handle;
+  private final List<Part> parts;
+  private final byte[] trailer;
+  private final String boundary;
+  private final PlaybackSession session;
+
+  public MultipartFileRegion(
+    FileChannelCache.Handle handle,
+    List<long[]> ranges,
+    String partContentType,
+    String boundary,
+    PlaybackSession session
+  ) {
+    this.handle = handle;
+    this.boundary = boundary;
+    this.session = session;
+    this.parts = new ArrayList<>();
+    for (long[] range : ranges) {
+      String header =
+        "\r\n--" +
+        boundary +
+        "\r\nContent-Type: " +
+        partContentType +
+        "\r\nContent-Range: bytes " +
+        range[0] +
+        "-" +
+        range[1] +
+        "/" +
+        handle.getSize() +
+        "\r\n\r\n";
+      parts.add(
+        new Part(
+          header.getBytes(StandardCharsets.US_ASCII),
+          range[0],
+          range[1] - range[0] + 1
+        )
+      );
+    }
+    this.trailer =
+      ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+  }
+
+  public FileChannelCache.Handle getHandle() {
+    return handle;
+  }
+
+  public List<Part> getParts() {
+    return parts;
+  }
+
+  public byte[] getTrailer() {
+    return trailer;
+  }
+
+  public String getBoundary() {
+    return boundary;
+  }
+
+  public PlaybackSession getSession() {
+    return session;
+  }
+
+  @Override
+  public void release() {
+    handle.close();
+  }
+
+  @Override
+  public long contentLength() {
+    long length = trailer.length;
+    for (Part part : parts) {
+      length += part.header().length + part.count();
+    }
+    return length;
+  }
+
+  public record Part(byte[] header, long position, long count) {}
+}
@@ -0,0 +1,225 @@
+package com.novastream.util;
+
+import com.novastream.config.MediaConfig;
+import jakarta.annotation.PreDestroy;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class ProbeCache {
+
+  private static final Logger logger = LoggerFactory.getLogger(
+    ProbeCache.class
+  );
+
+  private static final int MAGIC = 0x4E535052;
+  private static final int VERSION = 1;
+  private static final int MAX_VALUE_LENGTH = 1024 * 1024;
+
+  @Autowired
+  private MediaConfig mediaConfig;
+
+  private final Map<ProbeKey, ProbeResult> results = new LinkedHashMap<>(
+    16,
+    0.75f,
+    true
+  ) {
+    @Override
+    protected boolean removeEldestEntry(
+      Map.Entry<ProbeKey, ProbeResult> eldest
+    ) {
+      return size() > mediaConfig.getProbeCacheMaxEntries();
+    }
+  };
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder rebuilds = new LongAdder();
+
+  private volatile boolean loaded = false;
+  private volatile boolean dirty = false;
+
+  public String get(String kind, Path path, long size, long lastModified) {
+    ensureLoaded();
+    ProbeResult result;
+    synchronized (results) {
+      result = results.get(new ProbeKey(kind, path.toString()));
+    }
+    if (
+      result != null &&
+      result.size() == size &&
+      result.lastModified() == lastModified
+    ) {
+      hits.increment();
+      return result.value();
+    }
+    misses.increment();
+    return null;
+  }
+
+  public void put(
+    String kind,
+    Path path,
+    long size,
+    long lastModified,
+    String value
+  ) {
+    ensureLoaded();
+    synchronized (results) {
+      results.put(
+        new ProbeKey(kind, path.toString()),
+        new ProbeResult(size, lastModified, value)
+      );
+    }
+    dirty = true;
+  }
+
+  public Map<String, Object> getStats() {
+    long hitCount = hits.sum();
+    long lookups = hitCount + misses.sum();
+    Map<String, Object> stats = new LinkedHashMap<>();
+    synchronized (results) {
+      stats.put("entries", results.size());
+    }
+    stats.put("hits", hitCount);
+    stats.put("misses", lookups - hitCount);
+    stats.put("hitRate", lookups > 0 ? (double) hitCount / lookups : 0.0);
+    stats.put("rebuilds", rebuilds.sum());
+    return stats;
+  }
+
+  @Scheduled(fixedDelay = 30000)
+  public void flush() {
+    if (!dirty) {
+      return;
+    }
+    dirty = false;
+
+    Path file = getCacheFile();
+    Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+    try {
+      Files.createDirectories(file.getParent());
+      try (
+        DataOutputStream out = new DataOutputStream(
+          new BufferedOutputStream(Files.newOutputStream(temp))
+        )
+      ) {
+        Map<ProbeKey, ProbeResult> snapshot;
+        synchronized (results) {
+          snapshot = Map.copyOf(results);
+        }
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(snapshot.size());
+        for (Map.Entry<ProbeKey, ProbeResult> entry : snapshot.entrySet()) {
+          byte[] value = entry
+            .getValue()
+            .value()
+            .getBytes(StandardCharsets.UTF_8);
+          out.writeUTF(entry.getKey().kind());
+          out.writeUTF(entry.getKey().path());
+          out.writeLong(entry.getValue().size());
+          out.writeLong(entry.getValue().lastModified());
+          out.writeInt(value.length);
+          out.write(value);
+        }
+      }
+      Files.move(
+        temp,
+        file,
+        StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE
+      );
+    } catch (IOException e) {
+      dirty = true;
+      logger.debug("Failed to save probe cache: " + e.getMessage());
+    }
+  }
+
+  @PreDestroy
+  public void close() {
+    flush();
+  }
+
+  private void ensureLoaded() {
+    if (!loaded) {
+      load();
+    }
+  }
+
+  private synchronized void load() {
+    if (loaded) {
+      return;
+    }
+
+    Path file = getCacheFile();
+    try (
+      DataInputStream in = new DataInputStream(
+        new BufferedInputStream(Files.newInputStream(file))
+      )
+    ) {
+      if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+        throw new IOException("Unsupported probe cache format");
+      }
+      int count = in.readInt();
+      for (int i = 0; i < count; i++) {
+        String kind = in.readUTF();
+        String path = in.readUTF();
+        long size = in.readLong();
+        long lastModified = in.readLong();
+        int length = in.readInt();
+        if (length < 0 || length > MAX_VALUE_LENGTH) {
+          throw new IOException("Corrupt probe cache entry");
+        }
+        byte[] value = in.readNBytes(length);
+        if (value.length != length) {
+          throw new IOException("Truncated probe cache");
+        }
+        ProbeResult result = new ProbeResult(
+          size,
+          lastModified,
+          new String(value, StandardCharsets.UTF_8)
+        );
+        synchronized (results) {
+          results.put(new ProbeKey(kind, path), result);
+        }
+      }
+    } catch (NoSuchFileException e) {
+      logger.debug("No probe cache found at " + file);
+    } catch (IOException | RuntimeException e) {
+      logger.debug("Rebuilding unreadable probe cache: " + e.getMessage());
+      synchronized (results) {
+        results.clear();
+      }
+      rebuilds.increment();
+      dirty = true;
+    } finally {
+      loaded = true;
+    }
+  }
+
+  private Path getCacheFile() {
+    return Paths.get(mediaConfig.getDataPath(), "probes.bin");
+  }
+
+  private record ProbeKey(String kind, String path) {}
+
+  private record ProbeResult(long size, long lastModified, String value) {}
+}
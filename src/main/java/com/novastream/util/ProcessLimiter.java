@@ -0,0 +1,42 @@
+package com.novastream.util;
+
+import com.novastream.config.MediaConfig;
+import jakarta.annotation.PostConstruct;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+@Component
+public class ProcessLimiter {
+
+  @Autowired
+  private MediaConfig mediaConfig;
+
+  private Semaphore processPermits;
+
+  private int maxProcesses;
+
+  @PostConstruct
+  public void init() {
+    maxProcesses = Math.max(1, mediaConfig.getMaxConcurrentProcesses());
+    processPermits = new Semaphore(maxProcesses, true);
+  }
+
+  public void acquire() throws InterruptedException {
+    processPermits.acquire();
+  }
+
+  public void release() {
+    processPermits.release();
+  }
+
+  public Map<String, Object> getStats() {
+    Map<String, Object> stats = new LinkedHashMap<>();
+    stats.put("maxProcesses", maxProcesses);
+    stats.put("running", maxProcesses - processPermits.availablePermits());
+    stats.put("waiting", processPermits.getQueueLength());
+    return stats;
+  }
+}
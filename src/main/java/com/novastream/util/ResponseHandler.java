@@ -2,7 +2,6 @@ package com.novastream.util;
 
 import java.util.HashMap;
 import java.util.Map;
-import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -28,6 +27,17 @@ public class ResponseHandler {
       .body(buildResponse(null, status, data));
   }
 
+  public ResponseEntity<Object> create(
+    HttpStatus status,
+    HttpHeaders headers,
+    Object data
+  ) {
+    return ResponseEntity
+      .status(status)
+      .headers(headers)
+      .body(buildResponse(null, status, data));
+  }
+
   public ResponseEntity<Object> create(
     HttpStatus status,
     String message,
@@ -40,15 +50,15 @@ public class ResponseHandler {
 
   public ResponseEntity<Object> stream(
     HttpStatus status,
-    Resource resource,
+    Object body,
     MediaType mediaType
   ) {
-    return stream(status, resource, mediaType, null);
+    return stream(status, body, mediaType, null);
   }
 
   public ResponseEntity<Object> stream(
     HttpStatus status,
-    Resource resource,
+    Object body,
     MediaType mediaType,
     HttpHeaders headers
   ) {
@@ -59,7 +69,7 @@ public class ResponseHandler {
       responseBuilder.headers(headers);
     }
 
-    return responseBuilder.body(resource);
+    return responseBuilder.body(body);
   }
 
   private static Map<String, Object> buildResponse(
@@ -0,0 +1,212 @@
+package com.novastream.util;
+
+import com.novastream.model.Media;
+import java.io.File;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+import org.springframework.stereotype.Component;
+
+@Component
+public class SearchIndex {
+
+  private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+  private static final Pattern SEPARATORS = Pattern.compile(
+    "[^\\p{L}\\p{N}]+"
+  );
+
+  private final Map<String, List<Media>> directories = new ConcurrentHashMap<>();
+
+  private final Map<String, Document> documents = new ConcurrentHashMap<>();
+
+  private final NavigableMap<String, Set<String>> postings = new ConcurrentSkipListMap<>();
+
+  public synchronized void indexDirectory(String path, List<Media> entries) {
+    List<Media> previous = directories.put(path, entries);
+    if (previous == entries) {
+      return;
+    }
+
+    Set<String> current = new HashSet<>();
+    for (Media media : entries) {
+      current.add(media.getPath());
+      Document existing = documents.get(media.getPath());
+      if (existing == null || existing.media() != media) {
+        remove(media.getPath());
+        add(media);
+      }
+    }
+
+    if (previous != null) {
+      for (Media media : previous) {
+        if (!current.contains(media.getPath())) {
+          remove(media.getPath());
+        }
+      }
+    }
+  }
+
+  public synchronized void removeTree(String path) {
+    String prefix = path.endsWith(File.separator) ? path : path + File.separator;
+    directories
+      .keySet()
+      .removeIf(key -> key.equals(path) || key.startsWith(prefix));
+    for (String documentPath : new ArrayList<>(documents.keySet())) {
+      if (documentPath.equals(path) || documentPath.startsWith(prefix)) {
+        remove(documentPath);
+      }
+    }
+  }
+
+  public List<Media> search(String query, int limit) {
+    List<String> queryTokens = tokenize(query);
+    if (queryTokens.isEmpty() || limit <= 0) {
+      return List.of();
+    }
+
+    List<Set<String>> matches = new ArrayList<>();
+    for (String token : queryTokens) {
+      Set<String> paths = new HashSet<>();
+      for (Set<String> posting : postings
+        .subMap(token, true, token + Character.MAX_VALUE, false)
+        .values()) {
+        paths.addAll(posting);
+      }
+      if (paths.isEmpty()) {
+        return List.of();
+      }
+      matches.add(paths);
+    }
+    matches.sort(Comparator.comparingInt(Set::size));
+
+    Set<String> candidates = matches.get(0);
+    for (int i = 1; i < matches.size(); i++) {
+      candidates.retainAll(matches.get(i));
+    }
+
+    String normalizedQuery = String.join(" ", queryTokens);
+    Comparator<Hit> ranking = Comparator
+      .comparingInt(Hit::score)
+      .thenComparing(
+        (Hit hit) -> hit.document().media().getName().length(),
+        Comparator.reverseOrder()
+      )
+      .thenComparing(
+        (Hit hit) -> hit.document().media().getName(),
+        Comparator.reverseOrder()
+      );
+    PriorityQueue<Hit> top = new PriorityQueue<>(ranking);
+    for (String path : candidates) {
+      Document document = documents.get(path);
+      if (document == null) {
+        continue;
+      }
+      top.add(new Hit(document, score(document, queryTokens, normalizedQuery)));
+      if (top.size() > limit) {
+        top.poll();
+      }
+    }
+
+    List<Media> results = new ArrayList<>(top.size());
+    while (!top.isEmpty()) {
+      results.add(top.poll().document().media());
+    }
+    Collections.reverse(results);
+    return results;
+  }
+
+  public Map<String, Object> getStats() {
+    return Map.of("documents", documents.size(), "tokens", postings.size());
+  }
+
+  private void add(Media media) {
+    List<String> tokens = tokenize(media.getName());
+    documents.put(
+      media.getPath(),
+      new Document(media, tokens, String.join(" ", tokens))
+    );
+    for (String token : tokens) {
+      postings
+        .computeIfAbsent(token, key -> ConcurrentHashMap.newKeySet())
+        .add(media.getPath());
+    }
+  }
+
+  private void remove(String path) {
+    Document document = documents.remove(path);
+    if (document == null) {
+      return;
+    }
+    for (String token : document.tokens()) {
+      Set<String> posting = postings.get(token);
+      if (posting != null) {
+        posting.remove(path);
+        if (posting.isEmpty()) {
+          postings.remove(token, posting);
+        }
+      }
+    }
+  }
+
+  private static int score(
+    Document document,
+    List<String> queryTokens,
+    String normalizedQuery
+  ) {
+    int score = 0;
+    for (String queryToken : queryTokens) {
+      int best = 0;
+      for (String token : document.tokens()) {
+        if (token.equals(queryToken)) {
+          best = 4;
+          break;
+        }
+        if (token.startsWith(queryToken)) {
+          best = 2;
+        }
+      }
+      score += best;
+    }
+    if (document.normalizedName().startsWith(normalizedQuery)) {
+      score += 3;
+    }
+    return score;
+  }
+
+  private static List<String> tokenize(String text) {
+    if (text == null) {
+      return List.of();
+    }
+
+    String normalized = DIACRITICS
+      .matcher(Normalizer.normalize(text, Normalizer.Form.NFD))
+      .replaceAll("")
+      .toLowerCase(Locale.ROOT);
+    List<String> tokens = new ArrayList<>();
+    for (String token : SEPARATORS.split(normalized)) {
+      if (!token.isEmpty() && !tokens.contains(token)) {
+        tokens.add(token);
+      }
+    }
+    return tokens;
+  }
+
+  private record Document(
+    Media media,
+    List<String> tokens,
+    String normalizedName
+  ) {}
+
+  private record Hit(Document document, int score) {}
+}
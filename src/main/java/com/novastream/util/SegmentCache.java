@@ -0,0 +1,204 @@
+package com.novastream.util;
+
+import com.novastream.config.MediaConfig;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+@Component
+public class SegmentCache {
+
+  @Autowired
+  private MediaConfig mediaConfig;
+
+  private final LinkedHashMap<SegmentKey, ByteBuffer> segments = new LinkedHashMap<>(
+    16,
+    0.75f,
+    true
+  );
+
+  private final LinkedHashMap<SegmentKey, Boolean> recentMisses = new LinkedHashMap<>(
+    16,
+    0.75f,
+    true
+  );
+
+  private final Map<SegmentKey, CompletableFuture<ByteBuffer>> inFlight = new ConcurrentHashMap<>();
+
+  private long cachedBytes = 0;
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+  private final LongAdder coalescedReads = new LongAdder();
+
+  public int getSegmentSize() {
+    return mediaConfig.getSegmentSize();
+  }
+
+  public ByteBuffer get(FileChannelCache.Handle handle, long index)
+    throws IOException {
+    if (mediaConfig.getSegmentCacheMaxBytes() <= 0) {
+      return null;
+    }
+
+    SegmentKey key = new SegmentKey(
+      handle.getPath(),
+      handle.getLastModified(),
+      index
+    );
+
+    synchronized (this) {
+      ByteBuffer segment = segments.get(key);
+      if (segment != null) {
+        hits.increment();
+        return segment.asReadOnlyBuffer();
+      }
+
+      misses.increment();
+      if (
+        !inFlight.containsKey(key) && recentMisses.remove(key) == null
+      ) {
+        recentMisses.put(key, Boolean.TRUE);
+        trimRecentMisses();
+        return null;
+      }
+    }
+
+    return loadShared(key, handle).asReadOnlyBuffer();
+  }
+
+  public synchronized boolean contains(
+    FileChannelCache.Handle handle,
+    long index
+  ) {
+    return segments.containsKey(
+      new SegmentKey(handle.getPath(), handle.getLastModified(), index)
+    );
+  }
+
+  public boolean prefetch(FileChannelCache.Handle handle, long index)
+    throws IOException {
+    if (
+      mediaConfig.getSegmentCacheMaxBytes() <= 0 || contains(handle, index)
+    ) {
+      return false;
+    }
+
+    loadShared(
+      new SegmentKey(handle.getPath(), handle.getLastModified(), index),
+      handle
+    );
+    return true;
+  }
+
+  public synchronized void clear() {
+    segments.clear();
+    recentMisses.clear();
+    cachedBytes = 0;
+  }
+
+  public synchronized Map<String, Object> getStats() {
+    Map<String, Object> stats = new LinkedHashMap<>();
+    stats.put("segments", segments.size());
+    stats.put("cachedBytes", cachedBytes);
+    stats.put("maxBytes", mediaConfig.getSegmentCacheMaxBytes());
+    stats.put("hits", hits.sum());
+    stats.put("misses", misses.sum());
+    stats.put("evictions", evictions.sum());
+    stats.put("coalescedReads", coalescedReads.sum());
+    return stats;
+  }
+
+  private ByteBuffer loadShared(SegmentKey key, FileChannelCache.Handle handle)
+    throws IOException {
+    CompletableFuture<ByteBuffer> pending = new CompletableFuture<>();
+    CompletableFuture<ByteBuffer> existing = inFlight.putIfAbsent(key, pending);
+    if (existing != null) {
+      coalescedReads.increment();
+      try {
+        return existing.join();
+      } catch (CompletionException e) {
+        throw e.getCause() instanceof IOException cause
+          ? cause
+          : new IOException("Shared segment read failed", e.getCause());
+      }
+    }
+
+    try {
+      ByteBuffer segment = load(handle, key.index());
+      synchronized (this) {
+        store(key, segment);
+      }
+      pending.complete(segment);
+      return segment;
+    } catch (IOException | RuntimeException e) {
+      pending.completeExceptionally(e);
+      throw e;
+    } finally {
+      inFlight.remove(key, pending);
+    }
+  }
+
+  private ByteBuffer load(FileChannelCache.Handle handle, long index)
+    throws IOException {
+    long segmentStart = index * getSegmentSize();
+    int length = (int) Math.max(
+      0,
+      Math.min(getSegmentSize(), handle.getSize() - segmentStart)
+    );
+
+    ByteBuffer segment = ByteBuffer.allocateDirect(length);
+    FileChannel channel = handle.getChannel();
+    while (segment.hasRemaining()) {
+      int bytesRead = channel.read(
+        segment,
+        segmentStart + segment.position()
+      );
+      if (bytesRead == -1) break;
+    }
+    segment.flip();
+    return segment;
+  }
+
+  private void store(SegmentKey key, ByteBuffer segment) {
+    long maxBytes = mediaConfig.getSegmentCacheMaxBytes();
+    if (segment.limit() > maxBytes || segments.containsKey(key)) {
+      return;
+    }
+
+    Iterator<ByteBuffer> eldest = segments.values().iterator();
+    while (cachedBytes + segment.limit() > maxBytes && eldest.hasNext()) {
+      cachedBytes -= eldest.next().limit();
+      eldest.remove();
+      evictions.increment();
+    }
+
+    segments.put(key, segment);
+    cachedBytes += segment.limit();
+  }
+
+  private void trimRecentMisses() {
+    long tracked = Math.max(
+      1024,
+      mediaConfig.getSegmentCacheMaxBytes() / getSegmentSize() * 4
+    );
+    Iterator<SegmentKey> eldest = recentMisses.keySet().iterator();
+    while (recentMisses.size() > tracked && eldest.hasNext()) {
+      eldest.next();
+      eldest.remove();
+    }
+  }
+
+  private record SegmentKey(Path path, long lastModified, long index) {}
+}
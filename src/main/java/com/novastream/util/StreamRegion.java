@@ -0,0 +1,7 @@
+package com.novastream.util;
+
+public interface StreamRegion {
+  long contentLength();
+
+  void release();
+}
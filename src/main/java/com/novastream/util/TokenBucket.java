@@ -0,0 +1,39 @@
+package com.novastream.util;
+
+public class TokenBucket {
+
+  private long rate;
+  private double tokens;
+  private long lastRefill = System.nanoTime();
+
+  public TokenBucket(long rate) {
+    this.rate = rate;
+    this.tokens = rate;
+  }
+
+  public synchronized long getRate() {
+    return rate;
+  }
+
+  public synchronized void setRate(long rate) {
+    this.rate = rate;
+    this.tokens = Math.min(tokens, rate);
+  }
+
+  public synchronized long getLastRefill() {
+    return lastRefill;
+  }
+
+  public synchronized long reserve(long bytes) {
+    if (rate <= 0) {
+      return 0;
+    }
+
+    long now = System.nanoTime();
+    tokens = Math.min(rate, tokens + (now - lastRefill) * rate / 1e9);
+    lastRefill = now;
+    tokens -= bytes;
+
+    return tokens >= 0 ? 0 : (long) (-tokens * 1e9 / rate);
+  }
+}
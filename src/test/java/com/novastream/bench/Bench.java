@@ -0,0 +1,55 @@
+package com.novastream.bench;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+final class Bench {
+
+  private static final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+  private Bench() {}
+
+  static long allocatedBytes() {
+    return threads.getCurrentThreadAllocatedBytes();
+  }
+
+  static long gcCount() {
+    long count = 0;
+    for (
+      GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()
+    ) {
+      count += Math.max(0, gc.getCollectionCount());
+    }
+    return count;
+  }
+
+  static long bytesRead() throws IOException {
+    Path io = Path.of("/proc/self/io");
+    if (Files.isReadable(io)) {
+      for (String line : Files.readAllLines(io)) {
+        if (line.startsWith("rchar:")) {
+          return Long.parseLong(line.substring(6).trim());
+        }
+      }
+    }
+    return -1;
+  }
+
+  static long launch(String... command)
+    throws IOException, InterruptedException {
+    long startedAt = System.nanoTime();
+    Process process = new ProcessBuilder(command)
+      .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+      .redirectError(ProcessBuilder.Redirect.DISCARD)
+      .start();
+    process.waitFor();
+    return System.nanoTime() - startedAt;
+  }
+
+  static int intArg(String[] args, int index, int defaultValue) {
+    return args.length > index ? Integer.parseInt(args[index]) : defaultValue;
+  }
+}
@@ -0,0 +1,61 @@
+package com.novastream.bench;
+
+import com.novastream.config.MediaConfig;
+import com.novastream.service.MediaService;
+import com.novastream.service.PlaybackSession;
+import org.springframework.test.util.ReflectionTestUtils;
+
+// Open-ended range sizes from MediaService.chunkSizeFor vs the fixed chunk,
+// for a whole file read start to finish. Args: [file size GiB (4)]
+class ChunkSizingBench {
+
+  private static final String[][] CLIENTS = {
+    { "LAN", "100000000", "1000000" },
+    { "Wi-Fi", "5000000", "1000000" },
+    { "slow Wi-Fi", "300000", "125000" },
+  };
+
+  public static void main(String[] args) {
+    long fileSize = Bench.intArg(args, 0, 4) * 1024L * 1024 * 1024;
+    MediaConfig mediaConfig = new MediaConfig();
+    MediaService mediaService = new MediaService();
+    ReflectionTestUtils.setField(mediaService, "mediaConfig", mediaConfig);
+    long fixedChunk = mediaConfig.getChunkSize();
+
+    System.out.printf(
+      "%-10s %12s %12s %10s %10s %9s %9s%n",
+      "client",
+      "throughput",
+      "chunk",
+      "fixed req",
+      "adapt req",
+      "fixed s",
+      "adapt s"
+    );
+    for (String[] client : CLIENTS) {
+      long throughput = Long.parseLong(client[1]);
+      PlaybackSession session = new PlaybackSession(
+        "bench",
+        client[0],
+        Long.parseLong(client[2])
+      );
+      session.recordThroughput(throughput, 1_000_000_000L);
+      long chunk = ReflectionTestUtils.invokeMethod(
+        mediaService,
+        "chunkSizeFor",
+        session
+      );
+
+      System.out.printf(
+        "%-10s %10d/s %10d B %10d %10d %9.2f %9.2f%n",
+        client[0],
+        throughput,
+        chunk,
+        (fileSize + fixedChunk - 1) / fixedChunk,
+        (fileSize + chunk - 1) / chunk,
+        (double) fixedChunk / throughput,
+        (double) chunk / throughput
+      );
+    }
+  }
+}
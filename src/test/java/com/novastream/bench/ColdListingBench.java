@@ -0,0 +1,70 @@
+package com.novastream.bench;
+
+import com.novastream.service.ContentTypeService;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+// Cost of a cold listing that probes every video vs the process launch
+// floor. Args: [folder] [ffprobe (ffprobe)] [rounds (3)]; with no folder
+// only the launch floor of /bin/true is measured.
+class ColdListingBench {
+
+  private static final int LAUNCHES = 200;
+
+  public static void main(String[] args)
+    throws IOException, InterruptedException {
+    int rounds = Bench.intArg(args, 2, 3);
+    for (int round = 1; round <= rounds; round++) {
+      long total = 0;
+      for (int i = 0; i < LAUNCHES; i++) {
+        total += Bench.launch("/bin/true");
+      }
+      System.out.printf(
+        "round %d launch floor %.2f ms/process%n",
+        round,
+        total / 1e6 / LAUNCHES
+      );
+    }
+    if (args.length == 0) {
+      return;
+    }
+
+    String ffprobe = args.length > 1 ? args[1] : "ffprobe";
+    ContentTypeService contentTypeService = new ContentTypeService();
+    List<File> videos = new ArrayList<>();
+    File[] files = new File(args[0]).listFiles();
+    for (File file : files != null ? files : new File[0]) {
+      if (contentTypeService.isVideo(file)) {
+        videos.add(file);
+      }
+    }
+
+    for (int round = 1; round <= rounds; round++) {
+      long total = 0;
+      for (File video : videos) {
+        total +=
+          Bench.launch(
+            ffprobe,
+            "-v",
+            "error",
+            "-select_streams",
+            "s",
+            "-show_entries",
+            "stream=index,codec_name:stream_tags=language",
+            "-of",
+            "csv=p=0",
+            video.getAbsolutePath()
+          );
+      }
+      System.out.printf(
+        "round %d cold listing of %d videos: %.0f ms (%.2f ms/video)%n",
+        round,
+        videos.size(),
+        total / 1e6,
+        videos.isEmpty() ? 0 : total / 1e6 / videos.size()
+      );
+    }
+  }
+}
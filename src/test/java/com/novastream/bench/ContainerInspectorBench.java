@@ -0,0 +1,55 @@
+package com.novastream.bench;
+
+import com.novastream.util.ContainerInspector;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// ContainerInspector.inspect vs the launch floor of any ffprobe call.
+// Args: [clusters (260), about 2 MiB each] [rounds (3)]
+class ContainerInspectorBench {
+
+  private static final int INSPECTIONS = 2000;
+  private static final int LAUNCHES = 200;
+
+  public static void main(String[] args)
+    throws IOException, InterruptedException {
+    int clusters = Bench.intArg(args, 0, 260);
+    int rounds = Bench.intArg(args, 1, 3);
+
+    Path source = Files.createTempFile("inspector-bench", ".mkv");
+    try {
+      MatroskaFixture.write(source, 12, clusters);
+      System.out.printf(
+        "source %d MiB, %d tracks%n",
+        Files.size(source) >> 20,
+        ContainerInspector.inspect(source).size()
+      );
+
+      for (int round = 1; round <= rounds; round++) {
+        long read = Bench.bytesRead();
+        long startedAt = System.nanoTime();
+        for (int i = 0; i < INSPECTIONS; i++) {
+          ContainerInspector.inspect(source);
+        }
+        long inspectNanos = System.nanoTime() - startedAt;
+        long inspectRead = Bench.bytesRead() - read;
+
+        long launchNanos = 0;
+        for (int i = 0; i < LAUNCHES; i++) {
+          launchNanos += Bench.launch("/bin/true");
+        }
+
+        System.out.printf(
+          "round %d inspect %.1f us/file %d B read/file | launch %.2f ms%n",
+          round,
+          inspectNanos / 1e3 / INSPECTIONS,
+          inspectRead / INSPECTIONS,
+          launchNanos / 1e6 / LAUNCHES
+        );
+      }
+    } finally {
+      Files.deleteIfExists(source);
+    }
+  }
+}
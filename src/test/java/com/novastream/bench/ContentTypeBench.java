@@ -0,0 +1,112 @@
+package com.novastream.bench;
+
+import com.novastream.service.ContentTypeService;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+// Listing-time video detection: the old doubled probeContentType check vs
+// ContentTypeService. Args: [files (2000)] [passes (40)]
+class ContentTypeBench {
+
+  private static final byte[] EBML_HEADER = {
+    0x1A,
+    0x45,
+    (byte) 0xDF,
+    (byte) 0xA3,
+    (byte) 0x9F,
+    0x42,
+    (byte) 0x82,
+    (byte) 0x88,
+    'm',
+    'a',
+    't',
+    'r',
+    'o',
+    's',
+    'k',
+    'a',
+  };
+
+  public static void main(String[] args) throws IOException {
+    int count = Bench.intArg(args, 0, 2000);
+    int passes = Bench.intArg(args, 1, 40);
+
+    Path folder = Files.createTempDirectory("content-type-bench");
+    try {
+      for (int i = 0; i < count; i++) {
+        String name = i % 10 == 0
+          ? "video" + i
+          : "video" + i + (i % 2 == 0 ? ".mkv" : ".mp4");
+        Files.write(folder.resolve(name), EBML_HEADER);
+      }
+      File[] files = folder.toFile().listFiles();
+
+      double oldBest = Double.MAX_VALUE;
+      int oldVideos = 0;
+      for (int pass = 0; pass < passes; pass++) {
+        long startedAt = System.nanoTime();
+        oldVideos = 0;
+        for (File file : files) {
+          // The old listMedia checked every file twice.
+          isVideoFile(file);
+          if (isVideoFile(file)) {
+            oldVideos++;
+          }
+        }
+        oldBest = Math.min(oldBest, perFile(startedAt, files.length));
+      }
+
+      ContentTypeService contentTypeService = new ContentTypeService();
+      double serviceBest = Double.MAX_VALUE;
+      int serviceVideos = 0;
+      for (int pass = 0; pass < passes; pass++) {
+        long startedAt = System.nanoTime();
+        serviceVideos = 0;
+        for (File file : files) {
+          if (contentTypeService.isVideo(file)) {
+            serviceVideos++;
+          }
+        }
+        serviceBest = Math.min(serviceBest, perFile(startedAt, files.length));
+      }
+
+      System.out.printf(
+        "probeContentType x2  %.2f us/file, %d/%d videos%n",
+        oldBest,
+        oldVideos,
+        files.length
+      );
+      System.out.printf(
+        "ContentTypeService   %.2f us/file, %d/%d videos%n",
+        serviceBest,
+        serviceVideos,
+        files.length
+      );
+    } finally {
+      try (Stream<Path> paths = Files.walk(folder)) {
+        for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+          Files.delete(path);
+        }
+      }
+    }
+  }
+
+  private static boolean isVideoFile(File file) throws IOException {
+    if (file == null || !file.exists() || !file.isFile()) {
+      return false;
+    }
+    String contentType = Files.probeContentType(
+      Paths.get(file.getAbsolutePath())
+    );
+    return contentType != null && contentType.startsWith("video");
+  }
+
+  private static double perFile(long startedAt, int files) {
+    return (System.nanoTime() - startedAt) / 1e3 / files;
+  }
+}
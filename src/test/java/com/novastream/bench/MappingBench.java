@@ -0,0 +1,78 @@
+package com.novastream.bench;
+
+import com.novastream.dto.MediaDto;
+import com.novastream.model.Media;
+import com.novastream.model.Subtitle;
+import com.novastream.util.GenericMapper;
+import java.util.ArrayList;
+import java.util.List;
+import org.modelmapper.ModelMapper;
+
+// Media -> MediaDto through ModelMapper vs GenericMapper's registered
+// mapper. Args: [items (10000)] [rounds (20)]
+class MappingBench {
+
+  public static void main(String[] args) {
+    int count = Bench.intArg(args, 0, 10_000);
+    int rounds = Bench.intArg(args, 1, 20);
+
+    List<Subtitle> subtitles = List.of(
+      new Subtitle("English", "eng"),
+      new Subtitle("French", "fre"),
+      new Subtitle("Spanish", "spa")
+    );
+    List<Media> items = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      items.add(
+        new Media(
+          "n" + i,
+          "Episode " + i + ".mkv",
+          "/media/Episode " + i + ".mkv",
+          false,
+          1L << 30,
+          0L,
+          subtitles,
+          0L
+        )
+      );
+    }
+
+    ModelMapper modelMapper = new ModelMapper();
+    GenericMapper genericMapper = new GenericMapper();
+    MediaDto sink = null;
+    for (int round = 1; round <= rounds; round++) {
+      long allocated = Bench.allocatedBytes();
+      long startedAt = System.nanoTime();
+      for (Media media : items) {
+        sink = modelMapper.map(media, MediaDto.class);
+      }
+      report(round, "ModelMapper", count, allocated, startedAt);
+
+      allocated = Bench.allocatedBytes();
+      startedAt = System.nanoTime();
+      for (Media media : items) {
+        sink = genericMapper.toDto(media, MediaDto.class);
+      }
+      report(round, "GenericMapper", count, allocated, startedAt);
+    }
+    if (sink == null) {
+      System.out.println("no items mapped");
+    }
+  }
+
+  private static void report(
+    int round,
+    String mapper,
+    int count,
+    long allocatedBefore,
+    long startedAt
+  ) {
+    System.out.printf(
+      "round %d %-13s %8.0f ns/item %6d B/item%n",
+      round,
+      mapper,
+      (System.nanoTime() - startedAt) / (double) count,
+      (Bench.allocatedBytes() - allocatedBefore) / count
+    );
+  }
+}
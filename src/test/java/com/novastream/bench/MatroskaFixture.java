@@ -0,0 +1,107 @@
+package com.novastream.bench;
+
+import static com.novastream.util.EbmlBuilder.block;
+import static com.novastream.util.EbmlBuilder.concat;
+import static com.novastream.util.EbmlBuilder.element;
+import static com.novastream.util.EbmlBuilder.trackEntry;
+import static com.novastream.util.EbmlBuilder.uint;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+final class MatroskaFixture {
+
+  private static final int FRAMES_PER_CLUSTER = 48;
+  private static final int FRAME_SIZE = 42 * 1024;
+
+  private MatroskaFixture() {}
+
+  static void write(Path file, int subtitleTracks, int clusters)
+    throws IOException {
+    byte[][] entries = new byte[subtitleTracks + 1][];
+    entries[0] = trackEntry(1, 1, "V_MPEG4/ISO/AVC", null);
+    for (int track = 0; track < subtitleTracks; track++) {
+      entries[track + 1] = trackEntry(
+        track + 2,
+        0x11,
+        "S_TEXT/UTF8",
+        "l" + (char) ('a' + track) + "x"
+      );
+    }
+    byte[] head = concat(
+      element(0x1549A966, uint(0x2AD7B1, 1000000)),
+      element(0x1654AE6B, entries)
+    );
+
+    byte[] frame = new byte[4 + FRAME_SIZE];
+    new Random(3).nextBytes(frame);
+    frame[0] = (byte) 0x81;
+    frame[1] = 0;
+    frame[2] = 0;
+    frame[3] = 0;
+
+    Path body = Files.createTempFile("matroska-body", ".bin");
+    try {
+      long segmentSize = head.length;
+      try (
+        OutputStream out = new BufferedOutputStream(
+          Files.newOutputStream(body)
+        )
+      ) {
+        for (int cluster = 0; cluster < clusters; cluster++) {
+          byte[] bytes = cluster(cluster, frame, subtitleTracks);
+          out.write(bytes);
+          segmentSize += bytes.length;
+        }
+      }
+
+      try (
+        OutputStream out = new BufferedOutputStream(
+          Files.newOutputStream(file)
+        )
+      ) {
+        out.write(element(0x1A45DFA3));
+        out.write(new byte[] { 0x18, 0x53, (byte) 0x80, 0x67 });
+        out.write(
+          ByteBuffer
+            .allocate(8)
+            .putLong(segmentSize | 0x0100000000000000L)
+            .array()
+        );
+        out.write(head);
+        Files.copy(body, out);
+      }
+    } finally {
+      Files.deleteIfExists(body);
+    }
+  }
+
+  private static byte[] cluster(int index, byte[] frame, int subtitleTracks) {
+    List<byte[]> parts = new ArrayList<>();
+    parts.add(uint(0xE7, index * 2000L));
+    for (int i = 0; i < FRAMES_PER_CLUSTER; i++) {
+      parts.add(element(0xA3, frame));
+      int track = i / 4;
+      if (i % 4 == 0 && track < subtitleTracks) {
+        parts.add(
+          element(
+            0xA0,
+            element(
+              0xA1,
+              block(track + 2, i * 40, "Line " + index + " track " + track)
+            ),
+            uint(0x9B, 1500)
+          )
+        );
+      }
+    }
+    return element(0x1F43B675, parts.toArray(new byte[0][]));
+  }
+}
@@ -0,0 +1,126 @@
+package com.novastream.bench;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+// Old heap-buffer range copy vs the transferTo loop MediaStreamWriter uses.
+// Args: [file size MiB (512)] [requests (2000)] [rounds (3)]
+class RangeStreamingBench {
+
+  private static final int CHUNK_SIZE = 1024 * 1024;
+
+  public static void main(String[] args) throws IOException {
+    long size = (long) Bench.intArg(args, 0, 512) * CHUNK_SIZE;
+    int requests = Bench.intArg(args, 1, 2000);
+    int rounds = Bench.intArg(args, 2, 3);
+
+    Path file = Files.createTempFile("range-bench", ".bin");
+    try {
+      fill(file, size);
+      long[] offsets = new long[requests];
+      Random random = new Random(7);
+      for (int i = 0; i < requests; i++) {
+        offsets[i] = (long) (random.nextDouble() * (size - CHUNK_SIZE));
+      }
+
+      OutputStream sink = OutputStream.nullOutputStream();
+      WritableByteChannel target = Channels.newChannel(sink);
+      try (FileChannel channel = FileChannel.open(file)) {
+        for (int round = 1; round <= rounds; round++) {
+          System.gc();
+          long allocated = Bench.allocatedBytes();
+          long gcs = Bench.gcCount();
+          long started = System.nanoTime();
+          for (long offset : offsets) {
+            copyThroughHeap(file, offset, sink);
+          }
+          report(round, "heap buffer", requests, allocated, gcs, started);
+
+          System.gc();
+          allocated = Bench.allocatedBytes();
+          gcs = Bench.gcCount();
+          started = System.nanoTime();
+          for (long offset : offsets) {
+            transfer(channel, offset, CHUNK_SIZE, target);
+          }
+          report(round, "transferTo", requests, allocated, gcs, started);
+        }
+      }
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+
+  private static void copyThroughHeap(Path file, long offset, OutputStream out)
+    throws IOException {
+    try (
+      InputStream in = new BufferedInputStream(Files.newInputStream(file))
+    ) {
+      in.skipNBytes(offset);
+      byte[] buffer = new byte[CHUNK_SIZE];
+      int read = in.readNBytes(buffer, 0, CHUNK_SIZE);
+      out.write(buffer, 0, read);
+    }
+  }
+
+  private static long transfer(
+    FileChannel channel,
+    long position,
+    long length,
+    WritableByteChannel target
+  ) throws IOException {
+    long transferred = 0;
+    while (transferred < length) {
+      long count = channel.transferTo(
+        position + transferred,
+        length - transferred,
+        target
+      );
+      if (count <= 0) break;
+      transferred += count;
+    }
+    return transferred;
+  }
+
+  private static void fill(Path file, long size) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(CHUNK_SIZE);
+    new Random(1).nextBytes(buffer.array());
+    try (
+      FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)
+    ) {
+      for (long position = 0; position < size; position += CHUNK_SIZE) {
+        buffer.clear();
+        channel.write(buffer, position);
+      }
+    }
+  }
+
+  private static void report(
+    int round,
+    String path,
+    int requests,
+    long allocatedBefore,
+    long gcsBefore,
+    long startedAt
+  ) {
+    double seconds = (System.nanoTime() - startedAt) / 1e9;
+    System.out.printf(
+      "round %d %-12s %7.0f MiB/s %9.1f KiB/request %4d GCs%n",
+      round,
+      path,
+      requests / seconds,
+      (Bench.allocatedBytes() - allocatedBefore) / 1024.0 / requests,
+      Bench.gcCount() - gcsBefore
+    );
+  }
+}
@@ -0,0 +1,76 @@
+package com.novastream.bench;
+
+import com.novastream.util.MatroskaSubtitleDemuxer;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// One in-process demux of every text track vs one full read per track, the
+// floor for running ffmpeg once per track. Args: [tracks (12)]
+// [clusters (260), about 2 MiB each] [rounds (3)]
+class SubtitleExtractionBench {
+
+  public static void main(String[] args) throws IOException {
+    int tracks = Bench.intArg(args, 0, 12);
+    int clusters = Bench.intArg(args, 1, 260);
+    int rounds = Bench.intArg(args, 2, 3);
+
+    Path folder = Files.createTempDirectory("subtitle-bench");
+    Path source = folder.resolve("movie.mkv");
+    Map<Integer, Path> outputs = new LinkedHashMap<>();
+    for (int track = 0; track < tracks; track++) {
+      outputs.put(track + 1, folder.resolve(track + ".srt"));
+    }
+    try {
+      MatroskaFixture.write(source, tracks, clusters);
+      System.out.printf("source %d MiB%n", Files.size(source) >> 20);
+
+      ByteBuffer buffer = ByteBuffer.allocateDirect(1024 * 1024);
+      for (int round = 1; round <= rounds; round++) {
+        long read = Bench.bytesRead();
+        long startedAt = System.nanoTime();
+        boolean extracted = MatroskaSubtitleDemuxer.extract(source, outputs);
+        report(round, "demuxer", read, startedAt);
+        if (!extracted) {
+          System.out.println("demuxer failed");
+        }
+
+        read = Bench.bytesRead();
+        startedAt = System.nanoTime();
+        for (int track = 0; track < tracks; track++) {
+          try (FileChannel channel = FileChannel.open(source)) {
+            while (channel.read(buffer) > 0) {
+              buffer.clear();
+            }
+          }
+        }
+        report(round, tracks + " full reads", read, startedAt);
+      }
+    } finally {
+      for (Path output : outputs.values()) {
+        Files.deleteIfExists(output);
+      }
+      Files.deleteIfExists(source);
+      Files.deleteIfExists(folder);
+    }
+  }
+
+  private static void report(
+    int round,
+    String path,
+    long bytesReadBefore,
+    long startedAt
+  ) throws IOException {
+    System.out.printf(
+      "round %d %-14s %6d ms %7d MiB read%n",
+      round,
+      path,
+      (System.nanoTime() - startedAt) / 1_000_000,
+      (Bench.bytesRead() - bytesReadBefore) >> 20
+    );
+  }
+}
@@ -0,0 +1,45 @@
+package com.novastream.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class ByteRangeTest {
+
+  @Test
+  void parsesClosedAndOpenEndedRanges() {
+    List<ByteRange> ranges = ByteRange.parse("bytes=0-499, 1000-");
+
+    assertEquals(
+      List.of(new ByteRange(0L, 499L), new ByteRange(1000L, null)),
+      ranges
+    );
+    assertTrue(ranges.get(1).isOpenEnded());
+  }
+
+  @Test
+  void parsesSuffixRanges() {
+    List<ByteRange> ranges = ByteRange.parse("bytes=-500000");
+
+    assertEquals(List.of(new ByteRange(null, 500000L)), ranges);
+    assertTrue(ranges.get(0).isSuffix());
+  }
+
+  @Test
+  void ignoresInvalidOrUnknownRanges() {
+    assertTrue(ByteRange.parse("items=0-10").isEmpty());
+    assertTrue(ByteRange.parse("bytes=10-5").isEmpty());
+    assertTrue(ByteRange.parse("bytes=abc-").isEmpty());
+    assertTrue(ByteRange.parse("bytes=--5").isEmpty());
+    assertTrue(ByteRange.parse(null).isEmpty());
+  }
+
+  @Test
+  void ignoresTooManyRanges() {
+    String header = "bytes=" + "0-1,".repeat(ByteRange.MAX_RANGES + 1);
+
+    assertTrue(ByteRange.parse(header).isEmpty());
+  }
+}
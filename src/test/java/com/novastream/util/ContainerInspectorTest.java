@@ -0,0 +1,131 @@
+package com.novastream.util;
+
+import static com.novastream.util.EbmlBuilder.concat;
+import static com.novastream.util.EbmlBuilder.element;
+import static com.novastream.util.EbmlBuilder.trackEntry;
+import static com.novastream.util.EbmlBuilder.uint;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ContainerInspectorTest {
+
+  @TempDir
+  Path tempDir;
+
+  @Test
+  void readsMatroskaTrackEntries() throws IOException {
+    byte[] tracks = element(
+      0x1654AE6B,
+      trackEntry(1, 1, "V_MPEG4/ISO/AVC", null),
+      trackEntry(2, 2, "A_AAC", "jpn"),
+      trackEntry(3, 0x11, "S_TEXT/UTF8", "fre"),
+      trackEntry(4, 0x11, "S_HDMV/PGS", null),
+      trackEntry(5, 0x11, "S_TEXT/ASCII", "ger")
+    );
+    byte[] segment = element(
+      0x18538067,
+      element(0x1549A966, uint(0x2AD7B1, 1000000)),
+      tracks,
+      element(0x1F43B675, uint(0xE7, 0))
+    );
+    Path file = write("movie.mkv", element(0x1A45DFA3), segment);
+
+    assertEquals(
+      List.of(
+        new ContainerInspector.Track(0, "video", "h264", "eng"),
+        new ContainerInspector.Track(1, "audio", "aac", "jpn"),
+        new ContainerInspector.Track(2, "subtitle", "subrip", "fre"),
+        new ContainerInspector.Track(3, "subtitle", "hdmv_pgs_subtitle", "eng"),
+        new ContainerInspector.Track(4, "subtitle", "text", "ger")
+      ),
+      ContainerInspector.inspect(file)
+    );
+  }
+
+  @Test
+  void readsMp4TrackBoxes() throws IOException {
+    byte[] moov = box(
+      "moov",
+      trak("vide", "avc1", "und"),
+      trak("soun", "mp4a", "ger"),
+      trak("sbtl", "tx3g", "spa")
+    );
+    Path file = write(
+      "movie.mp4",
+      box("ftyp", "isom".getBytes(StandardCharsets.ISO_8859_1)),
+      box("mdat", new byte[64]),
+      moov
+    );
+
+    assertEquals(
+      List.of(
+        new ContainerInspector.Track(0, "video", "h264", "und"),
+        new ContainerInspector.Track(1, "audio", "aac", "ger"),
+        new ContainerInspector.Track(2, "subtitle", "mov_text", "spa")
+      ),
+      ContainerInspector.inspect(file)
+    );
+  }
+
+  @Test
+  void returnsNullForUnknownContainers() throws IOException {
+    Path file = write("movie.avi", "RIFF\0\0\0\0AVI LIST".getBytes());
+
+    assertNull(ContainerInspector.inspect(file));
+    assertNull(ContainerInspector.inspect(tempDir.resolve("missing.mkv")));
+  }
+
+  private Path write(String name, byte[]... parts) throws IOException {
+    Path file = tempDir.resolve(name);
+    Files.write(file, concat(parts));
+    return file;
+  }
+
+  private static byte[] trak(String handler, String format, String language) {
+    ByteBuffer hdlr = ByteBuffer.allocate(24);
+    hdlr.position(8);
+    hdlr.put(handler.getBytes(StandardCharsets.ISO_8859_1));
+
+    ByteBuffer mdhd = ByteBuffer.allocate(24);
+    mdhd.position(20);
+    mdhd.putShort(
+      (short) (((language.charAt(0) - 0x60) << 10) |
+        ((language.charAt(1) - 0x60) << 5) |
+        (language.charAt(2) - 0x60))
+    );
+
+    ByteBuffer stsd = ByteBuffer.allocate(16);
+    stsd.putInt(4, 1);
+    stsd.putInt(8, 16);
+    stsd.put(12, format.getBytes(StandardCharsets.ISO_8859_1));
+
+    return box(
+      "trak",
+      box("tkhd", new byte[84]),
+      box(
+        "mdia",
+        box("mdhd", mdhd.array()),
+        box("hdlr", hdlr.array()),
+        box("minf", box("stbl", box("stsd", stsd.array())))
+      )
+    );
+  }
+
+  private static byte[] box(String type, byte[]... children) {
+    byte[] payload = concat(children);
+    ByteBuffer box = ByteBuffer.allocate(8 + payload.length);
+    box.putInt(8 + payload.length);
+    box.put(type.getBytes(StandardCharsets.ISO_8859_1));
+    box.put(payload);
+    return box.array();
+  }
+}
@@ -0,0 +1,66 @@
+package com.novastream.util;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+public final class EbmlBuilder {
+
+  private EbmlBuilder() {}
+
+  public static byte[] element(int id, byte[]... children) {
+    byte[] payload = concat(children);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    int idLength = 4 - Integer.numberOfLeadingZeros(id) / 8;
+    for (int i = idLength - 1; i >= 0; i--) {
+      out.write(id >>> (i * 8));
+    }
+    long size = payload.length | 0x0100000000000000L;
+    for (int i = 7; i >= 0; i--) {
+      out.write((int) (size >>> (i * 8)));
+    }
+    out.writeBytes(payload);
+    return out.toByteArray();
+  }
+
+  public static byte[] uint(int id, long value) {
+    return element(id, ByteBuffer.allocate(8).putLong(value).array());
+  }
+
+  public static byte[] string(int id, String value) {
+    return element(id, value.getBytes(StandardCharsets.UTF_8));
+  }
+
+  public static byte[] trackEntry(
+    int number,
+    int type,
+    String codec,
+    String language
+  ) {
+    return element(
+      0xAE,
+      uint(0xD7, number),
+      uint(0x83, type),
+      string(0x86, codec),
+      language != null ? string(0x22B59C, language) : new byte[0]
+    );
+  }
+
+  public static byte[] block(int track, int timestamp, String text) {
+    byte[] data = text.getBytes(StandardCharsets.UTF_8);
+    ByteBuffer block = ByteBuffer.allocate(4 + data.length);
+    block.put((byte) (0x80 | track));
+    block.putShort((short) timestamp);
+    block.put((byte) 0);
+    block.put(data);
+    return block.array();
+  }
+
+  public static byte[] concat(byte[]... parts) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    for (byte[] part : parts) {
+      out.writeBytes(part);
+    }
+    return out.toByteArray();
+  }
+}
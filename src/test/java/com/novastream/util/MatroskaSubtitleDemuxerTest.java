@@ -0,0 +1,100 @@
+package com.novastream.util;
+
+import static com.novastream.util.EbmlBuilder.block;
+import static com.novastream.util.EbmlBuilder.concat;
+import static com.novastream.util.EbmlBuilder.element;
+import static com.novastream.util.EbmlBuilder.trackEntry;
+import static com.novastream.util.EbmlBuilder.uint;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MatroskaSubtitleDemuxerTest {
+
+  @TempDir
+  Path tempDir;
+
+  @Test
+  void writesSrtForSubripAndAssTracks() throws IOException {
+    Path source = write(
+      trackEntry(1, 1, "V_MPEG4/ISO/AVC", null),
+      trackEntry(2, 0x11, "S_TEXT/UTF8", "eng"),
+      trackEntry(3, 0x11, "S_TEXT/ASS", "fre")
+    );
+    Path english = tempDir.resolve("eng.srt");
+    Path french = tempDir.resolve("fre.srt");
+
+    assertTrue(
+      MatroskaSubtitleDemuxer.extract(source, Map.of(1, english, 2, french))
+    );
+    assertEquals(
+      "1\n00:00:01,500 --> 00:00:03,500\nHello\nworld\n\n" +
+      "2\n00:01:05,000 --> 00:01:07,000\nSecond line\n\n",
+      Files.readString(english)
+    );
+    assertEquals(
+      "1\n00:00:02,000 --> 00:00:04,250\nBonjour\nle monde\n\n",
+      Files.readString(french)
+    );
+  }
+
+  @Test
+  void rejectsImageSubtitleTracks() throws IOException {
+    Path source = write(
+      trackEntry(1, 1, "V_MPEG4/ISO/AVC", null),
+      trackEntry(2, 0x11, "S_HDMV/PGS", "eng")
+    );
+
+    assertFalse(
+      MatroskaSubtitleDemuxer.extract(
+        source,
+        Map.of(1, tempDir.resolve("eng.srt"))
+      )
+    );
+  }
+
+  private Path write(byte[]... trackEntries) throws IOException {
+    byte[] firstCluster = element(
+      0x1F43B675,
+      uint(0xE7, 1000),
+      element(0xA3, block(1, 0, "video frame")),
+      element(
+        0xA0,
+        element(0xA1, block(2, 500, "Hello\r\nworld")),
+        uint(0x9B, 2000)
+      ),
+      element(
+        0xA0,
+        element(
+          0xA1,
+          block(3, 1000, "0,0,Default,,0,0,0,,{\\i1}Bonjour\\Nle monde")
+        ),
+        uint(0x9B, 2250)
+      )
+    );
+    byte[] secondCluster = element(
+      0x1F43B675,
+      uint(0xE7, 65000),
+      element(0xA3, block(1, 0, "video frame")),
+      element(0xA3, block(2, 0, "Second line"))
+    );
+    byte[] segment = element(
+      0x18538067,
+      element(0x1549A966, uint(0x2AD7B1, 1000000)),
+      element(0x1654AE6B, concat(trackEntries)),
+      firstCluster,
+      secondCluster
+    );
+
+    Path file = tempDir.resolve("movie.mkv");
+    Files.write(file, concat(element(0x1A45DFA3), segment));
+    return file;
+  }
+}